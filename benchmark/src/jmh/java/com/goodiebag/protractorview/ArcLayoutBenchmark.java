@@ -0,0 +1,108 @@
+package com.goodiebag.protractorview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Layout and touch math of ProtractorView: onMeasure, the hit test and angle mapping run for every touch sample,
+ * and the thumb placement run for every angle change. The legacy benchmarks replay the Math based
+ * implementations they replaced.
+ */
+@State(Scope.Thread)
+public class ArcLayoutBenchmark {
+
+    private static final int TICK_OFFSET = 12;
+    private static final int TICK_LENGTH = 10;
+    private static final float DENSITY = 1;
+    private static final int SAMPLES = 1024;
+
+    @Param({"150", "300", "600"})
+    public int radius;
+
+    private final ArcLayout layout = new ArcLayout();
+    private int size;
+    private final float[] touchX = new float[SAMPLES];
+    private final float[] touchY = new float[SAMPLES];
+    private int sample;
+    private int angle;
+
+    @Setup
+    public void setUp() {
+        size = 2 * (radius + TICK_OFFSET + TICK_LENGTH + (int) (ArcLayout.LABEL_MARGIN_DP * DENSITY)) + 2;
+        layout.measure(size, size, TICK_OFFSET, TICK_LENGTH, DENSITY);
+        layout.updateTouchIgnoreRadius(true, 12, 12);
+
+        //Touches spread over and around the arc, some of them outside the touch ring
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            double theta = random.nextDouble() * 2 * Math.PI;
+            double distance = random.nextDouble() * 1.5 * layout.arcRadius;
+            touchX[i] = (float) (layout.centerX + distance * Math.cos(theta));
+            touchY[i] = (float) (layout.centerY + distance * Math.sin(theta));
+        }
+    }
+
+    private int nextSample() {
+        sample = (sample + 1) & (SAMPLES - 1);
+        return sample;
+    }
+
+    @Benchmark
+    public ArcLayout measure() {
+        layout.measure(size, size, TICK_OFFSET, TICK_LENGTH, DENSITY);
+        return layout;
+    }
+
+    @Benchmark
+    public double touchDegrees() {
+        int i = nextSample();
+        return layout.touchDegreesAt(touchX[i], touchY[i]);
+    }
+
+    @Benchmark
+    public boolean ignoreTouch() {
+        int i = nextSample();
+        return layout.isOutsideTouchRing(touchX[i], touchY[i], TICK_OFFSET, TICK_LENGTH);
+    }
+
+    @Benchmark
+    public int thumbPosition() {
+        angle = (angle + 7) % (FastTrig.MAX_DEGREES + 1);
+        return layout.thumbX(angle) + layout.thumbY(angle);
+    }
+
+    @Benchmark
+    public double legacyTouchDegrees() {
+        int i = nextSample();
+        float x = touchX[i] - layout.centerX;
+        float y = touchY[i] - layout.centerY;
+        x = -x;
+        double angle = Math.toDegrees(Math.atan2(y, x) + (Math.PI));
+        if (angle > 270)
+            angle = 0;
+        else if (angle > 180)
+            angle = 180;
+        return angle;
+    }
+
+    @Benchmark
+    public boolean legacyIgnoreTouch() {
+        int i = nextSample();
+        float x = touchX[i] - layout.centerX;
+        float y = touchY[i] - layout.centerY;
+        float touchRadius = (float) Math.sqrt(((x * x) + (y * y)));
+        return touchRadius < layout.touchIgnoreRadius || touchRadius > (layout.arcRadius + TICK_LENGTH + TICK_OFFSET);
+    }
+
+    @Benchmark
+    public int legacyThumbPosition() {
+        angle = (angle + 7) % (FastTrig.MAX_DEGREES + 1);
+        return (int) (layout.arcRadius * Math.cos(Math.toRadians(angle)))
+                + (int) (layout.arcRadius * Math.sin(Math.toRadians(angle)));
+    }
+}
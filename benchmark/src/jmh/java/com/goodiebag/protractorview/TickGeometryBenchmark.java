@@ -0,0 +1,87 @@
+package com.goodiebag.protractorview;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Tick and label geometry of ProtractorView: the rebuild done once per size or tick configuration,
+ * the per frame highlight split, and the per frame tick math onDraw used to do for comparison.
+ */
+@State(Scope.Thread)
+public class TickGeometryBenchmark {
+
+    private static final int MAX = 180;
+    private static final int TICK_OFFSET = 12;
+    private static final int TICK_LENGTH = 10;
+    //TickGeometry.MIN_TICK_GAP_DP at xxhdpi
+    private static final float MIN_TICK_GAP = TickGeometry.MIN_TICK_GAP_DP * 3;
+
+    @Param({"1", "5", "15"})
+    public int tickIntervals;
+
+    //Ordinal of ProtractorView.TicksBetweenLabel
+    @Param({"0", "2", "3"})
+    public int ticksBetweenLabel;
+
+    @Param({"150", "300", "600"})
+    public int radius;
+
+    private final TickGeometry geometry = new TickGeometry();
+    private int angle;
+
+    @Setup
+    public void setUp() {
+        geometry.rebuild(radius, radius, radius, TICK_OFFSET, TICK_LENGTH, tickIntervals, ticksBetweenLabel, MAX, MIN_TICK_GAP);
+    }
+
+    @Benchmark
+    public TickGeometry rebuild() {
+        geometry.rebuild(radius, radius, radius, TICK_OFFSET, TICK_LENGTH, tickIntervals, ticksBetweenLabel, MAX, MIN_TICK_GAP);
+        return geometry;
+    }
+
+    @Benchmark
+    public int highlightSplit() {
+        angle = (angle + 7) % (MAX + 1);
+        return geometry.progressTickCount(angle) + geometry.progressLabelCount(angle);
+    }
+
+    /**
+     * The tick loop onDraw ran on every frame before the geometry was cached, without the canvas calls.
+     */
+    @Benchmark
+    public void legacyTickLoop(Blackhole blackhole) {
+        double slope, startTickX, startTickY, endTickX, endTickY, midTickX, midTickY, thetaInRadians;
+        double radiusOffset = radius + TICK_OFFSET;
+        int count = ticksBetweenLabel;
+        for (int i = 360; i >= 180; i -= tickIntervals) {
+            if (count == ticksBetweenLabel) {
+                thetaInRadians = Math.toRadians(i);
+                slope = Math.tan(thetaInRadians);
+                startTickX = (radiusOffset * Math.cos(thetaInRadians));
+                midTickX = startTickX + (((TICK_LENGTH / 2)) * Math.cos(thetaInRadians));
+                midTickY = slope * midTickX;
+                blackhole.consume("" + (360 - i));
+                blackhole.consume((float) midTickX);
+                blackhole.consume((float) midTickY);
+                count = 0;
+            } else {
+                thetaInRadians = Math.toRadians(360 - i);
+                slope = Math.tan(thetaInRadians);
+                startTickX = (radiusOffset * Math.cos(thetaInRadians));
+                startTickY = slope * startTickX;
+                endTickX = startTickX + ((TICK_LENGTH) * Math.cos(thetaInRadians));
+                endTickY = slope * endTickX;
+                blackhole.consume((float) startTickX);
+                blackhole.consume((float) startTickY);
+                blackhole.consume((float) endTickX);
+                blackhole.consume((float) endTickY);
+                count++;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+import android.view.LayoutInflater;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Inflation time of a {@link ProtractorView} with and without the shared {@link ProtractorAttributes}.
+ * The uncached inflations clear both the shared attributes and the interned {@link ProtractorStyle}s, so they
+ * resolve the styleable, load the default thumb and build the style as if no view had been inflated before.
+ * Only the framework's own drawable cache stays warm. Cold and warm inflations alternate so drifts of the clock
+ * or of the JIT hit both alike. Runs on a device, timings are written to logcat under the InflationBenchmark tag.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InflationBenchmark {
+
+    private static final String TAG = "InflationBenchmark";
+    private static final int VIEWS = 100;
+
+    @Test
+    public void inflateFromSharedAttributes() throws Exception {
+        Context context = InstrumentationRegistry.getContext();
+        LayoutInflater inflater = LayoutInflater.from(context);
+        //Warm up the class loading and the inflater
+        inflater.inflate(com.goodiebag.protractorview.test.R.layout.inflation_benchmark, null);
+
+        long cold = 0;
+        long warm = 0;
+        for (int i = 0; i < VIEWS; i++) {
+            ProtractorAttributes.clearCache();
+            ProtractorStyle.clearCache();
+            long start = System.nanoTime();
+            inflater.inflate(com.goodiebag.protractorview.test.R.layout.inflation_benchmark, null);
+            cold += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            inflater.inflate(com.goodiebag.protractorview.test.R.layout.inflation_benchmark, null);
+            warm += System.nanoTime() - start;
+        }
+
+        Log.i(TAG, "uncached: " + cold / VIEWS / 1000 + "us/view, shared: " + warm / VIEWS / 1000 + "us/view, "
+                + "speed-up: " + String.format(Locale.US, "%.2f", (double) cold / warm) + "x");
+        assertTrue("Shared attributes inflate in " + warm / VIEWS / 1000 + "us/view, uncached in "
+                + cold / VIEWS / 1000 + "us/view", warm < cold);
+    }
+}
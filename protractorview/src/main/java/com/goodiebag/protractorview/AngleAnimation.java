@@ -0,0 +1,144 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.animation.Interpolator;
+
+/**
+ * Timing of an angle animation, see {@link ProtractorView#animateAngleTo(int, long, Interpolator)}.
+ * The angle follows the interpolator from the start angle to the target one. An animation restarted while running
+ * keeps its speed: the difference with the speed the new curve starts with is added as a term shaped
+ * fraction * (1 - fraction)^2, which has that slope at the start and fades out by the end.
+ * The carried speed may turn the angle around but never takes it past the target: a fast animation retargeted
+ * close by stops on the new target, like a decelerating curve would.
+ */
+final class AngleAnimation {
+
+    //Step of the fraction used to measure the slope of an interpolator
+    private static final float SLOPE_STEP = 0.001f;
+
+    private boolean mRunning;
+    private float mStartAngle;
+    private int mTargetAngle;
+    private long mStartTime;
+    private long mDuration;
+    private Interpolator mInterpolator;
+    //Fraction reached by the last step
+    private float mFraction;
+    //Degrees the carried over speed adds, scaled by fraction * (1 - fraction)^2
+    private float mCarry;
+    private float mAngle;
+    //True while the angle is held on the target the carried speed would take it past
+    private boolean mHeld;
+
+    /**
+     * Starts animating from the given angle, or from the angle reached so far if running, keeping its speed.
+     *
+     * @param interpolator timing curve, null for a linear one
+     */
+    void start(float fromAngle, int targetAngle, long startTime, long duration, Interpolator interpolator) {
+        boolean retarget = mRunning;
+        //In degrees per millisecond
+        float velocity = getVelocity();
+        mStartAngle = retarget ? mAngle : fromAngle;
+        mAngle = mStartAngle;
+        mTargetAngle = targetAngle;
+        mStartTime = startTime;
+        mDuration = duration;
+        mInterpolator = interpolator;
+        mFraction = 0;
+        mCarry = 0;
+        mHeld = false;
+        if (retarget && duration > 0) {
+            float initialVelocity = (targetAngle - mStartAngle) * slope(0) / duration;
+            mCarry = (velocity - initialVelocity) * duration;
+        }
+        mRunning = true;
+    }
+
+    void cancel() {
+        mRunning = false;
+    }
+
+    boolean isRunning() {
+        return mRunning;
+    }
+
+    /**
+     * Moves the animation to the given time, stopping it once the target angle is reached.
+     *
+     * @return true if the animation is still running
+     */
+    boolean step(long time) {
+        if (!mRunning) {
+            return false;
+        }
+        long elapsed = time - mStartTime;
+        float fraction = (mDuration <= 0) ? 1 : Math.max(0f, Math.min(1f, (float) elapsed / mDuration));
+        float remaining = 1 - fraction;
+        mFraction = fraction;
+        float travel = mTargetAngle - mStartAngle;
+        mAngle = mStartAngle + travel * interpolation(fraction) + mCarry * fraction * remaining * remaining;
+        //Past the target in the direction of the travel, or anywhere off it when there is nothing to travel
+        float past = (mAngle - mTargetAngle) * Math.signum(travel);
+        mHeld = (travel == 0) ? mAngle != mTargetAngle : past > 0;
+        if (mHeld) {
+            mAngle = mTargetAngle;
+        }
+        if (fraction >= 1) {
+            mRunning = false;
+            mAngle = mTargetAngle;
+        }
+        return mRunning;
+    }
+
+    /**
+     * @return the angle reached by the last step
+     */
+    float getAngle() {
+        return mAngle;
+    }
+
+    /**
+     * @return the speed at the last step in degrees per millisecond, 0 once stopped
+     */
+    float getVelocity() {
+        if (!mRunning || mHeld || mDuration <= 0) {
+            return 0;
+        }
+        float fraction = mFraction;
+        //Derivative of fraction * (1 - fraction)^2
+        float carrySlope = (1 - fraction) * (1 - 3 * fraction);
+        return ((mTargetAngle - mStartAngle) * slope(fraction) + mCarry * carrySlope) / mDuration;
+    }
+
+    private float interpolation(float fraction) {
+        return (mInterpolator == null) ? fraction : mInterpolator.getInterpolation(fraction);
+    }
+
+    private float slope(float fraction) {
+        if (mInterpolator == null) {
+            return 1;
+        }
+        float from = Math.min(fraction, 1 - SLOPE_STEP);
+        return (interpolation(from + SLOPE_STEP) - interpolation(from)) / SLOPE_STEP;
+    }
+}
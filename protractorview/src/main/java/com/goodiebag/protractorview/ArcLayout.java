@@ -0,0 +1,153 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+/**
+ * Layout math of a {@link ProtractorView}: where the arc sits for a given size, which touches hit it,
+ * how a touch maps to an angle and where the thumb goes for an angle.
+ * Kept free of Android types so it can be benchmarked and tested on a plain JVM.
+ */
+final class ArcLayout {
+
+    //Room left around the ticks for the labels, in dp
+    static final int LABEL_MARGIN_DP = 20;
+
+    //Size the view should report from onMeasure
+    int measuredWidth;
+    int measuredHeight;
+
+    //Bounds of the arc's circle
+    float arcLeft;
+    float arcTop;
+    int arcDiameter;
+    int arcRadius;
+
+    //Arc center rounded to whole pixels, touches and the thumb are relative to it
+    int centerX;
+    int centerY;
+
+    //Touches closer to the center than this are ignored
+    float touchIgnoreRadius;
+
+    /**
+     * Lays the arc out in the available space: a half circle as wide as the smaller dimension allows,
+     * leaving room for the ticks and labels.
+     *
+     * @param width      width given by the measure spec
+     * @param height     height given by the measure spec
+     * @param tickOffset distance between the arc and the start of a tick
+     * @param tickLength length of a tick
+     * @param density    display density
+     */
+    void measure(int width, int height, int tickOffset, int tickLength, float density) {
+        int min = Math.min(width, height);
+        int halfHeight = min / 2;
+        int tickEndToArc = (tickOffset + tickLength);
+
+        arcDiameter = min - 2 * tickEndToArc;
+        arcDiameter = (int) (arcDiameter - 2 * LABEL_MARGIN_DP * density);
+        arcRadius = arcDiameter / 2;
+
+        arcTop = halfHeight - arcRadius;
+        arcLeft = width / 2 - arcRadius;
+
+        centerX = (int) arcCenterX();
+        centerY = (int) arcCenterY();
+
+        measuredWidth = width;
+        measuredHeight = halfHeight + tickEndToArc;
+    }
+
+    float arcCenterX() {
+        return arcLeft + arcDiameter / 2f;
+    }
+
+    float arcCenterY() {
+        return arcTop + arcDiameter / 2f;
+    }
+
+    /**
+     * @param touchInside     true if touches inside the arc, down to two thirds of its radius, move the thumb
+     * @param thumbHalfWidth  half of the thumb's width
+     * @param thumbHalfHeight half of the thumb's height
+     */
+    void updateTouchIgnoreRadius(boolean touchInside, int thumbHalfWidth, int thumbHalfHeight) {
+        if (touchInside) {
+            touchIgnoreRadius = (float) (arcRadius / 1.5);
+        } else {
+            touchIgnoreRadius = arcRadius - Math.min(thumbHalfWidth, thumbHalfHeight);
+        }
+    }
+
+    /**
+     * @return true if the touch, in view coordinates, lies outside the ring between the ignore radius and the tick ends
+     */
+    boolean isOutsideTouchRing(float xPos, float yPos, int tickOffset, int tickLength) {
+        float x = xPos - centerX;
+        float y = yPos - centerY;
+
+        //Squared radii, no square root needed
+        float touchRadiusSquared = (x * x) + (y * y);
+        float outerRadius = arcRadius + tickLength + tickOffset;
+        return touchRadiusSquared < touchIgnoreRadius * touchIgnoreRadius || touchRadiusSquared > outerRadius * outerRadius;
+    }
+
+    /**
+     * @return the arc angle of a touch in view coordinates, see {@link #touchDegrees(float, float)}
+     */
+    double touchDegreesAt(float xPos, float yPos) {
+        return touchDegrees(xPos - centerX, yPos - centerY);
+    }
+
+    /**
+     * Converts a touch position relative to the arc center into an arc angle.
+     * Touches below the arc snap to the closest end: 0 on the right, 180 on the left.
+     *
+     * @param x horizontal offset from the arc center
+     * @param y vertical offset from the arc center, screen oriented
+     * @return the arc angle in degrees, between 0 and 180
+     */
+    static double touchDegrees(float x, float y) {
+        // convert to arc Angle, counter clockwise from the right
+        double angle = FastTrig.atan2Degrees(-y, x);
+        if (angle <= -90)
+            angle = 180;
+        else if (angle < 0)
+            angle = 0;
+        return angle;
+    }
+
+    /**
+     * @param angle angle between 0 and 180
+     * @return horizontal offset of the thumb from the arc center, positive to the right
+     */
+    int thumbX(int angle) {
+        return (int) (arcRadius * FastTrig.cos(angle));
+    }
+
+    /**
+     * @param angle angle between 0 and 180
+     * @return vertical offset of the thumb from the arc center, positive upwards
+     */
+    int thumbY(int angle) {
+        return (int) (arcRadius * FastTrig.sin(angle));
+    }
+}
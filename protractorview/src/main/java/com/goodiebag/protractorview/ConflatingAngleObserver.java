@@ -0,0 +1,107 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivers angle changes to one {@link ProtractorView.OnAngleChangeObserver} on its executor, conflating them.
+ * At most one delivery is queued or running at a time. Angles posted meanwhile overwrite each other,
+ * so a busy observer skips the intermediate angles and gets the newest one as soon as it is done.
+ * The final flag is sticky: an angle overwriting a final one not delivered yet is delivered as final,
+ * so the observer always learns that a gesture ended.
+ * An angle, its source and the final flag are packed in one int, posting allocates nothing.
+ */
+final class ConflatingAngleObserver implements Runnable {
+
+    private static final int NONE = Integer.MIN_VALUE;
+    private static final int FROM_USER = 1 << 16;
+    private static final int FINAL = 1 << 17;
+    private static final int ANGLE_MASK = FROM_USER - 1;
+
+    final ProtractorView.OnAngleChangeObserver observer;
+    private final Executor mExecutor;
+    private final AtomicInteger mPending = new AtomicInteger(NONE);
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+    private volatile boolean mRemoved;
+
+    ConflatingAngleObserver(ProtractorView.OnAngleChangeObserver observer, Executor executor) {
+        this.observer = observer;
+        mExecutor = executor;
+    }
+
+    /**
+     * Queues the angle for delivery, replacing any angle not delivered yet but keeping its final flag.
+     *
+     * @param angle angle between 0 and 180
+     */
+    void post(int angle, boolean fromUser, boolean isFinal) {
+        int packed = angle | (fromUser ? FROM_USER : 0) | (isFinal ? FINAL : 0);
+        while (true) {
+            int pending = mPending.get();
+            int next = (pending != NONE && (pending & FINAL) != 0) ? packed | FINAL : packed;
+            if (mPending.compareAndSet(pending, next)) {
+                break;
+            }
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        if (mScheduled.compareAndSet(false, true)) {
+            mExecutor.execute(this);
+        }
+    }
+
+    /**
+     * Stops the deliveries, an angle being delivered completes.
+     */
+    void remove() {
+        mRemoved = true;
+        mPending.set(NONE);
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            int packed = mPending.getAndSet(NONE);
+            boolean delivered = false;
+            try {
+                if (packed != NONE && !mRemoved) {
+                    observer.onAngleChanged(packed & ANGLE_MASK, (packed & FROM_USER) != 0, (packed & FINAL) != 0);
+                }
+                delivered = true;
+            } finally {
+                mScheduled.set(false);
+                //A throwing observer still gets the next angles, including one posted while it was called
+                if (!delivered && mPending.get() != NONE) {
+                    schedule();
+                }
+            }
+            //An angle posted while delivering found the flag still set, pick it up here
+            if (mPending.get() == NONE || !mScheduled.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+/**
+ * Table based trigonometry for the protractor.
+ * Every angle drawn by the view is an integer number of degrees between 0 and 180, so sine and cosine are
+ * looked up instead of computed. atan2 is reduced to the first octant and interpolated from a table,
+ * which is accurate to well under a hundredth of a degree.
+ */
+final class FastTrig {
+
+    //Largest angle, in degrees, covered by the sine and cosine tables
+    static final int MAX_DEGREES = 180;
+
+    private static final int ATAN_TABLE_SIZE = 1024;
+
+    private static final double[] SIN = new double[MAX_DEGREES + 1];
+    private static final double[] COS = new double[MAX_DEGREES + 1];
+    //atan(i / ATAN_TABLE_SIZE) in degrees, for i in [0, ATAN_TABLE_SIZE]
+    private static final double[] ATAN = new double[ATAN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= MAX_DEGREES; i++) {
+            double radians = Math.toRadians(i);
+            SIN[i] = Math.sin(radians);
+            COS[i] = Math.cos(radians);
+        }
+        for (int i = 0; i <= ATAN_TABLE_SIZE; i++) {
+            ATAN[i] = Math.toDegrees(Math.atan((double) i / ATAN_TABLE_SIZE));
+        }
+    }
+
+    private FastTrig() {
+    }
+
+    /**
+     * @param degrees angle between 0 and {@link #MAX_DEGREES}
+     */
+    static double sin(int degrees) {
+        return SIN[degrees];
+    }
+
+    /**
+     * @param degrees angle between 0 and {@link #MAX_DEGREES}
+     */
+    static double cos(int degrees) {
+        return COS[degrees];
+    }
+
+    /**
+     * Same contract as {@link Math#atan2(double, double)} but in degrees, within (-180, 180].
+     */
+    static double atan2Degrees(double y, double x) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        if (ax == 0 && ay == 0) {
+            return 0;
+        }
+        //First octant: atan of a ratio in [0, 1]
+        double angle;
+        if (ay <= ax) {
+            angle = atan(ay / ax);
+        } else {
+            angle = 90 - atan(ax / ay);
+        }
+        if (x < 0) {
+            angle = 180 - angle;
+        }
+        return (y < 0) ? -angle : angle;
+    }
+
+    //atan in degrees for a ratio in [0, 1], linearly interpolated
+    private static double atan(double ratio) {
+        double position = ratio * ATAN_TABLE_SIZE;
+        int index = (int) position;
+        if (index >= ATAN_TABLE_SIZE) {
+            return ATAN[ATAN_TABLE_SIZE];
+        }
+        double fraction = position - index;
+        return ATAN[index] + (ATAN[index + 1] - ATAN[index]) * fraction;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the bounds of the gauges of a {@link ProtractorGroup}, so a touch is only tested against
+ * the few gauges sharing its cell instead of all of them.
+ * Cells are about as large as an average gauge, so a gauge covers a handful of cells and a cell holds a handful
+ * of gauges. The gauges of every cell are stored back to back in one array, in ascending gauge order.
+ * Kept free of Android types so it can be tested on a plain JVM.
+ */
+final class GaugeGrid {
+
+    //Number of ints used to describe the bounds of one gauge (left, top, right, bottom)
+    static final int INTS_PER_BOUNDS = 4;
+
+    //Upper bound on the number of cells, cells grow when the gauges are spread too far apart
+    static final int MAX_CELLS = 4096;
+
+    int cellSize = 1;
+    int columns;
+    int rows;
+    //Gauges of cell c are entries[cellStart[c]] to entries[cellStart[c + 1] - 1]
+    int[] cellStart = new int[1];
+    int[] entries = new int[0];
+
+    //Write position of every cell while filling
+    private int[] mFill = new int[0];
+
+    /**
+     * Rebuilds the grid for the given gauges. Gauges with empty bounds are left out,
+     * and the parts of the bounds above or left of the origin are ignored.
+     *
+     * @param bounds left, top, right and bottom of every gauge, back to back
+     * @param count  number of gauges
+     */
+    void rebuild(int[] bounds, int count) {
+        int right = 0;
+        int bottom = 0;
+        long sizeSum = 0;
+        int sized = 0;
+        for (int i = 0; i < count; i++) {
+            int index = i * INTS_PER_BOUNDS;
+            int width = bounds[index + 2] - bounds[index];
+            int height = bounds[index + 3] - bounds[index + 1];
+            if (width <= 0 || height <= 0) {
+                continue;
+            }
+            right = Math.max(right, bounds[index + 2]);
+            bottom = Math.max(bottom, bounds[index + 3]);
+            sizeSum += Math.min(width, height);
+            sized++;
+        }
+        cellSize = (sized == 0) ? 1 : (int) Math.max(1, sizeSum / sized);
+        columns = right / cellSize + 1;
+        rows = bottom / cellSize + 1;
+        while ((long) columns * rows > MAX_CELLS) {
+            cellSize *= 2;
+            columns = right / cellSize + 1;
+            rows = bottom / cellSize + 1;
+        }
+
+        int cells = columns * rows;
+        if (cellStart.length < cells + 1) {
+            cellStart = new int[cells + 1];
+            mFill = new int[cells];
+        }
+        Arrays.fill(cellStart, 0, cells + 1, 0);
+
+        //Count the gauges of every cell, then turn the counts into start offsets
+        for (int i = 0; i < count; i++) {
+            int index = i * INTS_PER_BOUNDS;
+            if (!isEmpty(bounds, index) && bounds[index + 2] > 0 && bounds[index + 3] > 0) {
+                for (int row = firstCell(bounds[index + 1]); row <= lastCell(bounds[index + 3]); row++) {
+                    for (int column = firstCell(bounds[index]); column <= lastCell(bounds[index + 2]); column++) {
+                        cellStart[row * columns + column + 1]++;
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < cells; c++) {
+            cellStart[c + 1] += cellStart[c];
+            mFill[c] = cellStart[c];
+        }
+        if (entries.length < cellStart[cells]) {
+            entries = new int[cellStart[cells]];
+        }
+        for (int i = 0; i < count; i++) {
+            int index = i * INTS_PER_BOUNDS;
+            if (!isEmpty(bounds, index) && bounds[index + 2] > 0 && bounds[index + 3] > 0) {
+                for (int row = firstCell(bounds[index + 1]); row <= lastCell(bounds[index + 3]); row++) {
+                    for (int column = firstCell(bounds[index]); column <= lastCell(bounds[index + 2]); column++) {
+                        entries[mFill[row * columns + column]++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the cell holding the given point, or -1 if no gauge can contain it
+     */
+    int cellAt(float x, float y) {
+        if (x < 0 || y < 0) {
+            return -1;
+        }
+        int column = (int) x / cellSize;
+        int row = (int) y / cellSize;
+        if (column >= columns || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    private static boolean isEmpty(int[] bounds, int index) {
+        return bounds[index + 2] <= bounds[index] || bounds[index + 3] <= bounds[index + 1];
+    }
+
+    private int firstCell(int start) {
+        return Math.max(start, 0) / cellSize;
+    }
+
+    //Right and bottom edges are exclusive
+    private int lastCell(int end) {
+        return (end - 1) / cellSize;
+    }
+}
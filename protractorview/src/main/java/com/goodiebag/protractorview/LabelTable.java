@@ -0,0 +1,117 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Paint;
+
+/**
+ * Text of the angle labels of a {@link ProtractorView}, ready to be handed to
+ * {@link android.graphics.Canvas#drawText(char[], int, int, float, float, Paint)}.
+ * All label characters live in one char array, so drawing a label allocates nothing.
+ * Baselines are derived from the style's font metrics so the text is vertically centred on its anchor.
+ * Labels whose text would overlap the previous kept label are left out, so small views with dense labels
+ * draw a readable subset instead of a smear. Rebuilt together with {@link TickGeometry}, and when the text size changes.
+ */
+final class LabelTable {
+
+    //Characters of every label, back to back
+    char[] chars = new char[0];
+    int[] offsets = new int[0];
+    int[] lengths = new int[0];
+    //Measured width of every label
+    float[] widths = new float[0];
+    //Center x and baseline y coordinates of every label
+    float[] x = new float[0];
+    float[] baselines = new float[0];
+    //Angle written by every label, ascending
+    int[] angles = new int[0];
+    int count;
+    //Width of the widest label
+    float maxWidth;
+
+    /**
+     * Builds the label text for the anchors of the given geometry, skipping the labels which would collide.
+     * Labels are laid out from 0 upwards, a label is kept when its bounds, grown by a quarter of the text size,
+     * do not intersect those of the last kept one.
+     *
+     * @param geometry label anchors and angles
+     * @param style    text paint and metrics, the highlighted paint shares the size of the normal one
+     */
+    void rebuild(TickGeometry geometry, ProtractorStyle style) {
+        int slots = geometry.labelCount;
+        if (offsets.length < slots) {
+            offsets = new int[slots];
+            lengths = new int[slots];
+            widths = new float[slots];
+            x = new float[slots];
+            baselines = new float[slots];
+            angles = new int[slots];
+        }
+        //Angles never exceed three digits
+        if (chars.length < slots * 3) {
+            chars = new char[slots * 3];
+        }
+
+        style.ensurePaints();
+        Paint paint = style.textPaint;
+        float baselineOffset = style.labelBaselineOffset;
+        float halfHeight = style.angleTextSize / 2f;
+        float spacing = style.angleTextSize / 4f;
+
+        count = 0;
+        maxWidth = 0;
+        int offset = 0;
+        for (int i = 0; i < slots; i++) {
+            String label = Integer.toString(geometry.labelAngles[i]);
+            int length = label.length();
+            label.getChars(0, length, chars, offset);
+            float width = paint.measureText(chars, offset, length);
+            float labelX = geometry.labelX[i];
+            float labelY = geometry.labelY[i];
+            if (count > 0) {
+                int last = count - 1;
+                float lastY = baselines[last] - baselineOffset;
+                boolean overlapX = Math.abs(labelX - x[last]) < (width + widths[last]) / 2 + spacing;
+                boolean overlapY = Math.abs(labelY - lastY) < 2 * halfHeight + spacing;
+                if (overlapX && overlapY) {
+                    continue;
+                }
+            }
+            offsets[count] = offset;
+            lengths[count] = length;
+            widths[count] = width;
+            x[count] = labelX;
+            baselines[count] = labelY + baselineOffset;
+            angles[count] = geometry.labelAngles[i];
+            maxWidth = Math.max(maxWidth, width);
+            offset += length;
+            count++;
+        }
+    }
+
+    /**
+     * @param angle current angle of the protractor
+     * @return number of kept labels which are highlighted for the given angle
+     */
+    int progressCount(int angle) {
+        return TickGeometry.countAtMost(angles, count, angle);
+    }
+}
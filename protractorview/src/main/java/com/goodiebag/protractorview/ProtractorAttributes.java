@@ -0,0 +1,302 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Attribute values of a {@link ProtractorView}, resolved from the defaults, the theme and the layout attributes.
+ * Resolving the styleable and loading the default thumb is the bulk of the inflation cost, yet every view of a
+ * list or a pager resolves the same values. The values coming from the theme and the default style are therefore
+ * resolved once per theme, default style and configuration, and shared.
+ * Only views carrying their own ProtractorView attributes, or a style attribute, resolve their layout attributes
+ * on top of the shared values.
+ * The thumb is only kept as a constant state in the style, views create their drawable when first measured.
+ * <p>
+ * A theme changed in place with {@link Resources.Theme#applyStyle} is still the same key: the values resolved
+ * before the change are kept, so styles must be applied to a theme before any ProtractorView is inflated from it.
+ */
+final class ProtractorAttributes {
+
+    //Defaults, in dp
+    private static final int DEFAULT_STROKE_WIDTH_DP = 2;
+    private static final int DEFAULT_TEXT_SIZE_DP = 12;
+    private static final int DEFAULT_TICK_OFFSET_DP = 12;
+    private static final int DEFAULT_TICK_LENGTH_DP = 10;
+
+    //Attributes of the styleable, sorted for lookups
+    private static final int[] STYLEABLE = sortedCopy(R.styleable.ProtractorView);
+
+    //Resolved values per theme, then per default style and configuration. Themes are held weakly so their resources can go
+    private static final Map<Resources.Theme, Map<Key, ProtractorAttributes>> sCache =
+            new WeakHashMap<Resources.Theme, Map<Key, ProtractorAttributes>>();
+
+    final ProtractorStyle style;
+    final int tickOffset;
+    final int tickLength;
+    final int angle;
+    final int tickIntervals;
+    final int ticksBetweenLabel;
+    final boolean enabled;
+    final boolean touchInside;
+    final boolean cacheStaticLayer;
+    final boolean touchPrediction;
+    final boolean thumbLayer;
+    final int maxFrameRate;
+    //Thumb drawable loaded from the view's own attributes, null when the style's thumb is used
+    final Drawable thumb;
+
+    /**
+     * Built in defaults, but the thumb which is only loaded once nothing else provides one.
+     */
+    private ProtractorAttributes(Resources res) {
+        float density = res.getDisplayMetrics().density;
+        int gray = res.getColor(R.color.progress_gray);
+        int blue = res.getColor(R.color.default_blue_light);
+        ProtractorStyle.Builder builder = new ProtractorStyle.Builder();
+        builder.arcColor = gray;
+        builder.arcProgressColor = blue;
+        builder.textColor = gray;
+        builder.textProgressColor = blue;
+        builder.tickColor = gray;
+        builder.tickProgressColor = blue;
+        builder.roundedEdges = true;
+        builder.arcWidth = (int) (DEFAULT_STROKE_WIDTH_DP * density);
+        builder.arcProgressWidth = (int) (DEFAULT_STROKE_WIDTH_DP * density);
+        builder.angleTextSize = (int) (DEFAULT_TEXT_SIZE_DP * density);
+        builder.tickWidth = (int) (DEFAULT_STROKE_WIDTH_DP * density);
+        builder.tickProgressWidth = (int) (DEFAULT_STROKE_WIDTH_DP * density);
+        style = builder.build();
+        tickOffset = (int) (DEFAULT_TICK_OFFSET_DP * density);
+        tickLength = (int) (DEFAULT_TICK_LENGTH_DP * density);
+        angle = 0;
+        tickIntervals = 15;
+        ticksBetweenLabel = ProtractorView.TicksBetweenLabel.TWO.ordinal();
+        enabled = true;
+        touchInside = true;
+        cacheStaticLayer = false;
+        touchPrediction = false;
+        thumbLayer = false;
+        maxFrameRate = 0;
+        thumb = null;
+    }
+
+    /**
+     * A copy of the given attributes with another style.
+     */
+    private ProtractorAttributes(ProtractorAttributes source, ProtractorStyle style) {
+        this.style = style;
+        tickOffset = source.tickOffset;
+        tickLength = source.tickLength;
+        angle = source.angle;
+        tickIntervals = source.tickIntervals;
+        ticksBetweenLabel = source.ticksBetweenLabel;
+        enabled = source.enabled;
+        touchInside = source.touchInside;
+        cacheStaticLayer = source.cacheStaticLayer;
+        touchPrediction = source.touchPrediction;
+        thumbLayer = source.thumbLayer;
+        maxFrameRate = source.maxFrameRate;
+        thumb = source.thumb;
+    }
+
+    /**
+     * The given defaults overridden by the values present in the array.
+     *
+     * @param keepThumb true to keep the thumb drawable for the view, false to only keep its constant state
+     * @throws IllegalArgumentException if the thumb has no constant state and is not kept
+     */
+    private ProtractorAttributes(TypedArray array, ProtractorAttributes defaults, boolean keepThumb) {
+        ProtractorStyle.Builder builder = defaults.style.buildUpon();
+        Drawable thumbDrawable = null;
+        //The default thumb is only loaded if nothing overrides it
+        if (array.hasValue(R.styleable.ProtractorView_thumb)) {
+            thumbDrawable = array.getDrawable(R.styleable.ProtractorView_thumb);
+            if (thumbDrawable != null) {
+                builder.thumbState = thumbDrawable.getConstantState();
+                //Without a constant state only the view keeping the drawable can draw it
+                if (builder.thumbState == null && !keepThumb) {
+                    throw new IllegalArgumentException("The thumb of the default style has no constant state,"
+                            + " it cannot be shared by the views of the theme");
+                }
+            }
+        }
+        //Dimensions
+        builder.angleTextSize = (int) array.getDimension(R.styleable.ProtractorView_angleTextSize, builder.angleTextSize);
+        builder.arcProgressWidth = (int) array.getDimension(R.styleable.ProtractorView_progressWidth, builder.arcProgressWidth);
+        tickOffset = (int) array.getDimension(R.styleable.ProtractorView_tickOffset, defaults.tickOffset);
+        tickLength = (int) array.getDimension(R.styleable.ProtractorView_tickLength, defaults.tickLength);
+        builder.arcWidth = (int) array.getDimension(R.styleable.ProtractorView_arcWidth, builder.arcWidth);
+        //Integers
+        angle = array.getInteger(R.styleable.ProtractorView_angle, defaults.angle);
+        tickIntervals = array.getInt(R.styleable.ProtractorView_tickIntervals, defaults.tickIntervals);
+        //Colors
+        builder.arcColor = array.getColor(R.styleable.ProtractorView_arcColor, builder.arcColor);
+        builder.arcProgressColor = array.getColor(R.styleable.ProtractorView_arcProgressColor, builder.arcProgressColor);
+        builder.textColor = array.getColor(R.styleable.ProtractorView_textColor, builder.textColor);
+        builder.textProgressColor = array.getColor(R.styleable.ProtractorView_textProgressColor, builder.textProgressColor);
+        builder.tickColor = array.getColor(R.styleable.ProtractorView_tickColor, builder.tickColor);
+        builder.tickProgressColor = array.getColor(R.styleable.ProtractorView_tickProgressColor, builder.tickProgressColor);
+        //Boolean
+        builder.roundedEdges = array.getBoolean(R.styleable.ProtractorView_roundEdges, builder.roundedEdges);
+        enabled = array.getBoolean(R.styleable.ProtractorView_enabled, defaults.enabled);
+        touchInside = array.getBoolean(R.styleable.ProtractorView_touchInside, defaults.touchInside);
+        cacheStaticLayer = array.getBoolean(R.styleable.ProtractorView_cacheStaticLayer, defaults.cacheStaticLayer);
+        touchPrediction = array.getBoolean(R.styleable.ProtractorView_touchPrediction, defaults.touchPrediction);
+        thumbLayer = array.getBoolean(R.styleable.ProtractorView_thumbLayer, defaults.thumbLayer);
+        maxFrameRate = array.getInt(R.styleable.ProtractorView_maxFrameRate, defaults.maxFrameRate);
+        ticksBetweenLabel = array.getInt(R.styleable.ProtractorView_ticksBetweenLabel, defaults.ticksBetweenLabel);
+        style = builder.build();
+        thumb = keepThumb ? thumbDrawable : null;
+    }
+
+    /**
+     * Resolves the attributes of a view, from the shared values when the view has no attributes of its own.
+     */
+    static ProtractorAttributes obtain(Context context, AttributeSet attrs, int defStyleAttr, int defStyleRes) {
+        ProtractorAttributes defaults = shared(context, defStyleAttr, defStyleRes);
+        if (attrs == null || !hasOwnAttributes(attrs)) {
+            return defaults;
+        }
+        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.ProtractorView, defStyleAttr, defStyleRes);
+        try {
+            return new ProtractorAttributes(array, defaults, true);
+        } finally {
+            array.recycle();
+        }
+    }
+
+    private static ProtractorAttributes shared(Context context, int defStyleAttr, int defStyleRes) {
+        Resources.Theme theme = context.getTheme();
+        //A theme outlives configuration changes, the dimensions and night colors resolved from it do not
+        Resources res = context.getResources();
+        //The whole configuration, any qualifier (orientation, width, locale...) may select other resources
+        Key key = new Key(defStyleAttr, defStyleRes, res.getDisplayMetrics().densityDpi, res.getConfiguration());
+        synchronized (sCache) {
+            Map<Key, ProtractorAttributes> byStyle = sCache.get(theme);
+            if (byStyle == null) {
+                byStyle = new HashMap<Key, ProtractorAttributes>();
+                sCache.put(theme, byStyle);
+            }
+            ProtractorAttributes attributes = byStyle.get(key);
+            if (attributes == null) {
+                attributes = new ProtractorAttributes(res);
+                if (defStyleAttr != 0 || defStyleRes != 0) {
+                    TypedArray array = context.obtainStyledAttributes(null, R.styleable.ProtractorView,
+                            defStyleAttr, defStyleRes);
+                    try {
+                        attributes = new ProtractorAttributes(array, attributes, false);
+                    } finally {
+                        array.recycle();
+                    }
+                }
+                if (attributes.style.thumbState == null) {
+                    Drawable.ConstantState thumbState =
+                            res.getDrawable(R.drawable.thumb_selector).getConstantState();
+                    attributes = new ProtractorAttributes(attributes,
+                            attributes.style.buildUpon().thumbState(thumbState).build());
+                }
+                //The resources update their configuration in place, the stored key keeps its own copy
+                byStyle.put(new Key(defStyleAttr, defStyleRes, key.densityDpi, new Configuration(key.config)),
+                        attributes);
+            }
+            return attributes;
+        }
+    }
+
+    /**
+     * @return true if the layout sets a style or any ProtractorView attribute on the view
+     */
+    static boolean hasOwnAttributes(AttributeSet attrs) {
+        if (attrs.getStyleAttribute() != 0) {
+            return true;
+        }
+        for (int i = 0, count = attrs.getAttributeCount(); i < count; i++) {
+            int id = attrs.getAttributeNameResource(i);
+            if (id != 0 && Arrays.binarySearch(STYLEABLE, id) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets every resolved value, for tests and benchmarks measuring a cold inflation.
+     */
+    static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    private static int[] sortedCopy(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static final class Key {
+        final int defStyleAttr;
+        final int defStyleRes;
+        //Part of the configuration only from API 17
+        final int densityDpi;
+        final Configuration config;
+
+        Key(int defStyleAttr, int defStyleRes, int densityDpi, Configuration config) {
+            this.defStyleAttr = defStyleAttr;
+            this.defStyleRes = defStyleRes;
+            this.densityDpi = densityDpi;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return defStyleAttr == that.defStyleAttr && defStyleRes == that.defStyleRes
+                    && densityDpi == that.densityDpi && config.equals(that.config);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = defStyleAttr;
+            result = 31 * result + defStyleRes;
+            result = 31 * result + densityDpi;
+            result = 31 * result + config.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.support.v4.os.TraceCompat;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewParent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A single view drawing many protractors, for instrument panels where a view per gauge costs too much
+ * in measure, layout and touch dispatch.
+ * Every {@link Gauge} is a protractor model with its own bounds, angle and listener, drawn with the arc, tick
+ * and thumb code of {@link ProtractorView}. The look and the tick attributes are shared by every gauge and
+ * come from the same attributes as ProtractorView, which can be set on the group in XML.
+ * <p>
+ * Touches are routed through a grid over the gauge bounds, and every pointer drags the gauge it went down on,
+ * so several gauges can be dragged at once. Gauges of the same size share their tick and label geometry.
+ */
+public class ProtractorGroup extends View {
+
+    private static final int MAX = 180;
+    private static final int NO_POINTER = -1;
+    private static final int[] ENABLED_STATE = {android.R.attr.state_enabled};
+    private static final int[] PRESSED_STATE = {android.R.attr.state_enabled, android.R.attr.state_pressed};
+    private final float DENSITY = getContext().getResources().getDisplayMetrics().density;
+
+    private final List<Gauge> mGauges = new ArrayList<Gauge>();
+    //Geometry per gauge size, rebuilt with the index
+    private final List<GaugeLayout> mLayouts = new ArrayList<GaugeLayout>();
+
+    //Spatial index over the gauge bounds, dirty when a gauge is added, removed or moved
+    private final GaugeGrid mGrid = new GaugeGrid();
+    private int[] mGridBounds = new int[0];
+    private boolean mIndexDirty = true;
+
+    //Gauge dragged by every pointer id
+    private final SparseArray<Gauge> mTrackedGauges = new SparseArray<Gauge>();
+
+    //Shared look, set from ProtractorAttributes
+    private ProtractorStyle mStyle;
+    private int mTickOffset;
+    private int mTickLength;
+    private int mTickIntervals;
+    private int mTicksBetweenLabel;
+    private boolean mTouchInside;
+    //Shared by every gauge, its state is switched per gauge while drawing
+    private Drawable mThumb;
+
+    /**
+     * Receives the changes of one gauge, with the contract of {@link ProtractorView.OnProtractorViewChangeListener}.
+     */
+    public interface OnGaugeChangeListener {
+        void onProgressChanged(Gauge gauge, int progress, boolean fromUser);
+
+        void onStartTrackingTouch(Gauge gauge);
+
+        void onStopTrackingTouch(Gauge gauge);
+    }
+
+    public ProtractorGroup(Context context) {
+        super(context);
+        init(context, null, 0);
+    }
+
+    public ProtractorGroup(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context, attrs, R.attr.protractorViewStyle);
+    }
+
+    public ProtractorGroup(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context, attrs, defStyleAttr);
+    }
+
+    private void init(Context context, AttributeSet attrs, int defStyle) {
+        ProtractorAttributes attributes = ProtractorAttributes.obtain(context, attrs, defStyle, 0);
+        mStyle = attributes.style;
+        mTickOffset = attributes.tickOffset;
+        mTickLength = attributes.tickLength;
+        mTickIntervals = attributes.tickIntervals;
+        mTicksBetweenLabel = attributes.ticksBetweenLabel;
+        mTouchInside = attributes.touchInside;
+        mThumb = attributes.thumb;
+    }
+
+    /**
+     * Adds a gauge drawn in the given bounds, in view coordinates. Its arc is laid out in the bounds
+     * as a ProtractorView of the same size would lay it out. Later gauges are drawn over earlier ones.
+     *
+     * @return the new gauge, at angle 0
+     */
+    public Gauge addGauge(int left, int top, int right, int bottom) {
+        Gauge gauge = new Gauge();
+        gauge.mBounds.set(left, top, right, bottom);
+        mGauges.add(gauge);
+        mIndexDirty = true;
+        invalidate(gauge.mBounds);
+        return gauge;
+    }
+
+    /**
+     * Removes a gauge, ending its drag if it is being dragged.
+     */
+    public void removeGauge(Gauge gauge) {
+        if (!mGauges.remove(gauge)) {
+            return;
+        }
+        if (gauge.mPointerId != NO_POINTER) {
+            onPointerUp(gauge.mPointerId);
+        }
+        mIndexDirty = true;
+        invalidate(gauge.mBounds);
+    }
+
+    public int getGaugeCount() {
+        return mGauges.size();
+    }
+
+    public Gauge getGauge(int index) {
+        return mGauges.get(index);
+    }
+
+    /**
+     * @return the top most gauge whose bounds contain the point, in view coordinates, or null
+     */
+    public Gauge gaugeAt(float x, float y) {
+        return findGauge(x, y, false);
+    }
+
+    /**
+     * Looks the point up in the grid. Gauges of a cell are stored in drawing order, so the last match is on top.
+     *
+     * @param onRing true to only match gauges whose touchable ring contains the point
+     */
+    private Gauge findGauge(float x, float y, boolean onRing) {
+        ensureIndex();
+        int cell = mGrid.cellAt(x, y);
+        if (cell < 0) {
+            return null;
+        }
+        for (int i = mGrid.cellStart[cell + 1] - 1; i >= mGrid.cellStart[cell]; i--) {
+            Gauge gauge = mGauges.get(mGrid.entries[i]);
+            if (!gauge.mBounds.contains((int) x, (int) y)) {
+                continue;
+            }
+            if (!onRing || !gauge.isOutsideTouchRing(x, y)) {
+                return gauge;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rebuilds the grid and hands every gauge the layout of its size, creating the missing ones.
+     */
+    private void ensureIndex() {
+        if (!mIndexDirty) {
+            return;
+        }
+        mIndexDirty = false;
+        int count = mGauges.size();
+        if (mGridBounds.length < count * GaugeGrid.INTS_PER_BOUNDS) {
+            mGridBounds = new int[count * GaugeGrid.INTS_PER_BOUNDS];
+        }
+        //Layouts of sizes no gauge uses any more are dropped
+        List<GaugeLayout> oldLayouts = new ArrayList<GaugeLayout>(mLayouts);
+        mLayouts.clear();
+        for (int i = 0; i < count; i++) {
+            Gauge gauge = mGauges.get(i);
+            Rect bounds = gauge.mBounds;
+            int index = i * GaugeGrid.INTS_PER_BOUNDS;
+            mGridBounds[index] = bounds.left;
+            mGridBounds[index + 1] = bounds.top;
+            mGridBounds[index + 2] = bounds.right;
+            mGridBounds[index + 3] = bounds.bottom;
+            GaugeLayout layout = findLayout(mLayouts, bounds.width(), bounds.height());
+            if (layout == null) {
+                layout = findLayout(oldLayouts, bounds.width(), bounds.height());
+                if (layout == null) {
+                    layout = new GaugeLayout(bounds.width(), bounds.height());
+                }
+                mLayouts.add(layout);
+            }
+            gauge.mPainter = layout.painter;
+        }
+        mGrid.rebuild(mGridBounds, count);
+    }
+
+    private static GaugeLayout findLayout(List<GaugeLayout> layouts, int width, int height) {
+        for (int i = 0; i < layouts.size(); i++) {
+            GaugeLayout layout = layouts.get(i);
+            if (layout.width == width && layout.height == height) {
+                return layout;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the thumb from the style on first use.
+     */
+    private Drawable ensureThumb() {
+        if (mThumb == null) {
+            mThumb = mStyle.thumbState.newDrawable(getResources());
+        }
+        if (mThumb.getBounds().isEmpty()) {
+            ProtractorView.setThumbBounds(mThumb);
+        }
+        return mThumb;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        TraceCompat.beginSection("ProtractorGroup.onDraw");
+        ensureIndex();
+        Drawable thumb = ensureThumb();
+        for (int i = 0; i < mGauges.size(); i++) {
+            Gauge gauge = mGauges.get(i);
+            Rect bounds = gauge.mBounds;
+            if (bounds.isEmpty() || canvas.quickReject(bounds.left, bounds.top, bounds.right, bounds.bottom,
+                    Canvas.EdgeType.AA)) {
+                continue;
+            }
+            ProtractorPainter painter = gauge.mPainter;
+            canvas.save();
+            canvas.translate(bounds.left, bounds.top);
+            painter.draw(canvas, gauge.mAngle, MAX, mStyle);
+            if (gauge.mEnabled) {
+                thumb.setState(gauge.mPointerId != NO_POINTER ? PRESSED_STATE : ENABLED_STATE);
+                painter.drawThumb(canvas, thumb, painter.arcLayout.thumbX(gauge.mAngle),
+                        painter.arcLayout.thumbY(gauge.mAngle));
+            }
+            canvas.restore();
+        }
+        TraceCompat.endSection();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled()) {
+            return false;
+        }
+        int actionIndex = event.getActionIndex();
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                //The group only takes the gesture when the first pointer lands on a gauge
+                return onPointerDown(event.getPointerId(actionIndex), event.getX(actionIndex), event.getY(actionIndex));
+            case MotionEvent.ACTION_POINTER_DOWN:
+                onPointerDown(event.getPointerId(actionIndex), event.getX(actionIndex), event.getY(actionIndex));
+                break;
+            case MotionEvent.ACTION_MOVE:
+                for (int p = 0; p < event.getPointerCount(); p++) {
+                    onPointerMove(event.getPointerId(p), event, p);
+                }
+                break;
+            case MotionEvent.ACTION_POINTER_UP:
+            case MotionEvent.ACTION_UP:
+                onPointerUp(event.getPointerId(actionIndex));
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                cancelTracking();
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * Starts dragging the gauge under a new pointer, if any. A gauge already dragged by another pointer is left to it.
+     *
+     * @return true if the pointer took a gauge
+     */
+    boolean onPointerDown(int pointerId, float x, float y) {
+        Gauge gauge = findGauge(x, y, true);
+        if (gauge == null || !gauge.mEnabled || gauge.mPointerId != NO_POINTER) {
+            return false;
+        }
+        if (mTrackedGauges.size() == 0) {
+            requestDisallowIntercept(true);
+        }
+        gauge.mPointerId = pointerId;
+        mTrackedGauges.put(pointerId, gauge);
+        if (gauge.mListener != null) {
+            gauge.mListener.onStartTrackingTouch(gauge);
+        }
+        gauge.updateOnTouch(x, y);
+        return true;
+    }
+
+    /**
+     * Moves the gauge dragged by the pointer to the newest of its samples, batched historical ones included,
+     * which lies on the ring. Samples off the ring are skipped as ProtractorView does.
+     */
+    private void onPointerMove(int pointerId, MotionEvent event, int pointerIndex) {
+        Gauge gauge = mTrackedGauges.get(pointerId);
+        if (gauge == null) {
+            return;
+        }
+        int historySize = event.getHistorySize();
+        for (int h = historySize; h >= 0; h--) {
+            boolean current = h == historySize;
+            float x = current ? event.getX(pointerIndex) : event.getHistoricalX(pointerIndex, h);
+            float y = current ? event.getY(pointerIndex) : event.getHistoricalY(pointerIndex, h);
+            if (gauge.updateOnTouch(x, y)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves the gauge dragged by the pointer to the given point, see {@link #onPointerMove(int, MotionEvent, int)}.
+     */
+    void onPointerMove(int pointerId, float x, float y) {
+        Gauge gauge = mTrackedGauges.get(pointerId);
+        if (gauge != null) {
+            gauge.updateOnTouch(x, y);
+        }
+    }
+
+    /**
+     * Stops dragging the gauge of the pointer, if any.
+     */
+    void onPointerUp(int pointerId) {
+        Gauge gauge = mTrackedGauges.get(pointerId);
+        if (gauge == null) {
+            return;
+        }
+        mTrackedGauges.remove(pointerId);
+        gauge.mPointerId = NO_POINTER;
+        invalidate(gauge.mBounds);
+        if (mTrackedGauges.size() == 0) {
+            requestDisallowIntercept(false);
+        }
+        if (gauge.mListener != null) {
+            gauge.mListener.onStopTrackingTouch(gauge);
+        }
+    }
+
+    /**
+     * Stops every drag in progress.
+     */
+    void cancelTracking() {
+        while (mTrackedGauges.size() > 0) {
+            onPointerUp(mTrackedGauges.keyAt(0));
+        }
+    }
+
+    private void requestDisallowIntercept(boolean disallow) {
+        ViewParent parent = getParent();
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(disallow);
+        }
+    }
+
+    /**
+     * Arc, tick and label geometry of every gauge of one size.
+     */
+    private final class GaugeLayout {
+        final int width;
+        final int height;
+        final ProtractorPainter painter = new ProtractorPainter();
+
+        GaugeLayout(int width, int height) {
+            this.width = width;
+            this.height = height;
+            painter.measure(width, height, mTickOffset, mTickLength, DENSITY);
+            painter.rebuild(mTickOffset, mTickLength, mTickIntervals, mTicksBetweenLabel, MAX, DENSITY, mStyle);
+            Drawable thumb = ensureThumb();
+            painter.arcLayout.updateTouchIgnoreRadius(mTouchInside,
+                    thumb.getIntrinsicWidth() / 2, thumb.getIntrinsicHeight() / 2);
+        }
+    }
+
+    /**
+     * One protractor of the group: bounds, angle, enabled state and listener.
+     * Must only be used from the UI thread, like the group.
+     */
+    public final class Gauge {
+
+        private final Rect mBounds = new Rect();
+        private int mAngle;
+        private boolean mEnabled = true;
+        private OnGaugeChangeListener mListener;
+        private Object mTag;
+        //Pointer dragging the gauge, NO_POINTER if none
+        private int mPointerId = NO_POINTER;
+        //Shared by the gauges of the same size, set by ensureIndex
+        private ProtractorPainter mPainter;
+
+        private Gauge() {
+        }
+
+        public ProtractorGroup getGroup() {
+            return ProtractorGroup.this;
+        }
+
+        /**
+         * @return a copy of the bounds of the gauge, in view coordinates
+         */
+        public Rect getBounds() {
+            return new Rect(mBounds);
+        }
+
+        /**
+         * Moves or resizes the gauge, in view coordinates.
+         */
+        public void setBounds(int left, int top, int right, int bottom) {
+            if (mBounds.left == left && mBounds.top == top && mBounds.right == right && mBounds.bottom == bottom) {
+                return;
+            }
+            invalidate(mBounds);
+            mBounds.set(left, top, right, bottom);
+            mIndexDirty = true;
+            invalidate(mBounds);
+        }
+
+        public int getAngle() {
+            return mAngle;
+        }
+
+        public void setAngle(int angle) {
+            updateAngle(angle, false);
+        }
+
+        public boolean isEnabled() {
+            return mEnabled;
+        }
+
+        /**
+         * A disabled gauge has no thumb and ignores touches. Disabling a dragged gauge ends its drag.
+         */
+        public void setEnabled(boolean enabled) {
+            if (mEnabled == enabled) {
+                return;
+            }
+            mEnabled = enabled;
+            if (!enabled && mPointerId != NO_POINTER) {
+                onPointerUp(mPointerId);
+            }
+            invalidate(mBounds);
+        }
+
+        public boolean isPressed() {
+            return mPointerId != NO_POINTER;
+        }
+
+        public OnGaugeChangeListener getOnGaugeChangeListener() {
+            return mListener;
+        }
+
+        public void setOnGaugeChangeListener(OnGaugeChangeListener listener) {
+            mListener = listener;
+        }
+
+        public Object getTag() {
+            return mTag;
+        }
+
+        /**
+         * Attaches an arbitrary object to the gauge, typically to tell listeners which reading it shows.
+         */
+        public void setTag(Object tag) {
+            mTag = tag;
+        }
+
+        //Touches are in view coordinates, the painter lays the gauge out from its own origin
+        private boolean isOutsideTouchRing(float x, float y) {
+            ensureIndex();
+            return mPainter.arcLayout.isOutsideTouchRing(x - mBounds.left, y - mBounds.top, mTickOffset, mTickLength);
+        }
+
+        /**
+         * @return false if the touch is off the ring and was ignored
+         */
+        private boolean updateOnTouch(float x, float y) {
+            if (isOutsideTouchRing(x, y)) {
+                return false;
+            }
+            double angle = mPainter.arcLayout.touchDegreesAt(x - mBounds.left, y - mBounds.top);
+            updateAngle((int) angle, true);
+            return true;
+        }
+
+        private void updateAngle(int angle, boolean fromUser) {
+            angle = (angle > MAX) ? MAX : (angle < 0) ? 0 : angle;
+            if (angle != mAngle) {
+                mAngle = angle;
+                invalidate(mBounds);
+            }
+            if (mListener != null) {
+                mListener.onProgressChanged(this, mAngle, fromUser);
+            }
+        }
+    }
+}
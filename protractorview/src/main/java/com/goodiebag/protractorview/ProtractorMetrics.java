@@ -0,0 +1,164 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import java.util.Arrays;
+
+/**
+ * Render and touch metrics of one or more {@link ProtractorView}s, enabled with
+ * {@link ProtractorView#setMetrics(ProtractorMetrics)}.
+ * Durations go into fixed size histograms with power of two buckets in microseconds, bucket i counting
+ * durations in [2^i, 2^(i+1)) microseconds (bucket 0 also counts anything shorter).
+ * Recording never allocates, {@link #snapshot()} can be polled from any thread.
+ */
+public final class ProtractorMetrics {
+
+    public enum Timing {
+        //Time spent in onDraw
+        DRAW,
+        //Time spent handling a touch event in onTouchEvent
+        TOUCH,
+        //Time between a touch event and the onProgressChanged call it caused
+        TOUCH_TO_PROGRESS
+    }
+
+    public enum Counter {
+        //Redraws requested by angle or state changes
+        INVALIDATE,
+        //onProgressChanged calls
+        PROGRESS_CHANGED,
+        //onStartTrackingTouch and onStopTrackingTouch calls
+        TRACKING
+    }
+
+    public static final int BUCKET_COUNT = 24;
+
+    private static final int TIMINGS = Timing.values().length;
+    private static final int COUNTERS = Counter.values().length;
+
+    private final long[] mBuckets = new long[TIMINGS * BUCKET_COUNT];
+    private final long[] mTotalNanos = new long[TIMINGS];
+    private final long[] mMaxNanos = new long[TIMINGS];
+    private final long[] mCounters = new long[COUNTERS];
+
+    public synchronized void recordTiming(Timing timing, long nanos) {
+        int index = timing.ordinal();
+        mBuckets[index * BUCKET_COUNT + bucketOf(nanos)]++;
+        mTotalNanos[index] += nanos;
+        if (nanos > mMaxNanos[index]) {
+            mMaxNanos[index] = nanos;
+        }
+    }
+
+    public synchronized void increment(Counter counter) {
+        mCounters[counter.ordinal()]++;
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(mBuckets, 0);
+        Arrays.fill(mTotalNanos, 0);
+        Arrays.fill(mMaxNanos, 0);
+        Arrays.fill(mCounters, 0);
+    }
+
+    /**
+     * @return a copy of everything recorded so far
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(mBuckets.clone(), mTotalNanos.clone(), mMaxNanos.clone(), mCounters.clone());
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros <= 1) {
+            return 0;
+        }
+        int bucket = 63 - Long.numberOfLeadingZeros(micros);
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Immutable copy of the metrics at a point in time.
+     */
+    public static final class Snapshot {
+
+        private final long[] mBuckets;
+        private final long[] mTotalNanos;
+        private final long[] mMaxNanos;
+        private final long[] mCounters;
+
+        Snapshot(long[] buckets, long[] totalNanos, long[] maxNanos, long[] counters) {
+            mBuckets = buckets;
+            mTotalNanos = totalNanos;
+            mMaxNanos = maxNanos;
+            mCounters = counters;
+        }
+
+        public long getCount(Timing timing) {
+            long count = 0;
+            int offset = timing.ordinal() * BUCKET_COUNT;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                count += mBuckets[offset + i];
+            }
+            return count;
+        }
+
+        /**
+         * @return number of samples in the bucket covering [2^bucket, 2^(bucket+1)) microseconds
+         */
+        public long getBucketCount(Timing timing, int bucket) {
+            return mBuckets[timing.ordinal() * BUCKET_COUNT + bucket];
+        }
+
+        public long getTotalNanos(Timing timing) {
+            return mTotalNanos[timing.ordinal()];
+        }
+
+        public long getMaxNanos(Timing timing) {
+            return mMaxNanos[timing.ordinal()];
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return upper bound, in nanoseconds, of the bucket holding the given percentile, 0 without samples
+         */
+        public long getPercentileNanos(Timing timing, double percentile) {
+            long count = getCount(timing);
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            int offset = timing.ordinal() * BUCKET_COUNT;
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += mBuckets[offset + i];
+                if (seen >= rank) {
+                    return (i == BUCKET_COUNT - 1) ? mMaxNanos[timing.ordinal()] : (2000L << i);
+                }
+            }
+            return mMaxNanos[timing.ordinal()];
+        }
+
+        public long getCount(Counter counter) {
+            return mCounters[counter.ordinal()];
+        }
+    }
+}
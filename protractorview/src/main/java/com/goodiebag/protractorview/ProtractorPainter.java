@@ -0,0 +1,163 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Geometry and drawing code of one protractor, shared by {@link ProtractorView} and {@link ProtractorRenderer}.
+ * Holds the arc layout and the cached ticks and labels for one size, and draws them for any angle with a given style.
+ * An instance is not thread safe, the styles it draws with are.
+ */
+final class ProtractorPainter {
+
+    final ArcLayout arcLayout = new ArcLayout();
+    //Bounds of the arc's circle
+    final RectF arcRect = new RectF();
+    final TickGeometry tickGeometry = new TickGeometry();
+    final LabelTable labelTable = new LabelTable();
+
+    /**
+     * Lays the arc out for the given size, see {@link ArcLayout#measure(int, int, int, int, float)}.
+     */
+    void measure(int width, int height, int tickOffset, int tickLength, float density) {
+        arcLayout.measure(width, height, tickOffset, tickLength, density);
+        arcRect.set(arcLayout.arcLeft, arcLayout.arcTop,
+                arcLayout.arcLeft + arcLayout.arcDiameter, arcLayout.arcTop + arcLayout.arcDiameter);
+    }
+
+    /**
+     * Rebuilds the ticks and labels for the current layout, dropping the ticks and labels too dense to be read.
+     */
+    void rebuild(int tickOffset, int tickLength, int tickIntervals, int ticksBetweenLabel, int maxAngle,
+                 float density, ProtractorStyle style) {
+        //Ticks are kept clear of each other by at least their own width
+        float minTickGap = Math.max(TickGeometry.MIN_TICK_GAP_DP * density, 2 * style.tickWidth);
+        tickGeometry.rebuild(arcRect.centerX(), arcRect.centerY(), arcLayout.arcRadius, tickOffset, tickLength,
+                tickIntervals, ticksBetweenLabel, maxAngle, minTickGap);
+        labelTable.rebuild(tickGeometry, style);
+    }
+
+    /**
+     * Draws the whole protractor but the thumb, highlighted up to {@code angle}.
+     */
+    void draw(Canvas canvas, int angle, int maxAngle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawArc(canvas, maxAngle, style.arcPaint);
+        drawArc(canvas, angle, style.arcProgressPaint);
+        drawMarks(canvas, angle, style);
+    }
+
+    /**
+     * Like {@link #draw} without the progress arc, which is drawn by {@link #drawProgressArc}.
+     */
+    void drawBody(Canvas canvas, int angle, int maxAngle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawArc(canvas, maxAngle, style.arcPaint);
+        drawMarks(canvas, angle, style);
+    }
+
+    private void drawMarks(Canvas canvas, int angle, ProtractorStyle style) {
+        int progressLabels = labelTable.progressCount(angle);
+        int progressTicks = tickGeometry.progressTickCount(angle);
+        drawLabels(canvas, 0, progressLabels, style.textProgressPaint);
+        drawLabels(canvas, progressLabels, labelTable.count, style.textPaint);
+        drawTicks(canvas, 0, progressTicks, style.tickProgressPaint);
+        drawTicks(canvas, progressTicks, tickGeometry.tickCount, style.tickPaint);
+    }
+
+    /**
+     * Draws the parts which do not depend on the angle: the arc, every tick and every label in their normal colors.
+     */
+    void drawStatic(Canvas canvas, int maxAngle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawArc(canvas, maxAngle, style.arcPaint);
+        drawLabels(canvas, 0, labelTable.count, style.textPaint);
+        drawTicks(canvas, 0, tickGeometry.tickCount, style.tickPaint);
+    }
+
+    /**
+     * Draws the highlighted parts only, on top of what {@link #drawStatic} drew.
+     */
+    void drawProgress(Canvas canvas, int angle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawArc(canvas, angle, style.arcProgressPaint);
+        drawHighlights(canvas, angle, style);
+    }
+
+    /**
+     * Draws the highlighted ticks and labels only, on top of what {@link #drawStatic} drew.
+     */
+    void drawHighlights(Canvas canvas, int angle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawLabels(canvas, 0, labelTable.progressCount(angle), style.textProgressPaint);
+        drawTicks(canvas, 0, tickGeometry.progressTickCount(angle), style.tickProgressPaint);
+    }
+
+    void drawProgressArc(Canvas canvas, int angle, ProtractorStyle style) {
+        style.ensurePaints();
+        drawArc(canvas, angle, style.arcProgressPaint);
+    }
+
+    /**
+     * @return true if the ticks or labels highlighted at both angles differ
+     */
+    boolean highlightChanged(int fromAngle, int toAngle) {
+        return labelTable.progressCount(fromAngle) != labelTable.progressCount(toAngle)
+                || tickGeometry.progressTickCount(fromAngle) != tickGeometry.progressTickCount(toAngle);
+    }
+
+    /**
+     * Draws the thumb, whose bounds are centered on the origin, at the given offset from the arc center.
+     * The thumb is mirrored around the arc center.
+     */
+    void drawThumb(Canvas canvas, Drawable thumb, int thumbX, int thumbY) {
+        canvas.save();
+        canvas.scale(-1, 1, arcRect.centerX(), arcRect.centerY());
+        canvas.translate(arcLayout.centerX - thumbX, arcLayout.centerY - thumbY);
+        thumb.draw(canvas);
+        canvas.restore();
+    }
+
+    private void drawArc(Canvas canvas, int sweepAngle, Paint paint) {
+        canvas.save();
+        canvas.scale(1, -1, arcRect.centerX(), arcRect.centerY());
+        canvas.drawArc(arcRect, 0, sweepAngle, false, paint);
+        canvas.restore();
+    }
+
+    private void drawLabels(Canvas canvas, int from, int to, Paint paint) {
+        for (int i = from; i < to; i++) {
+            canvas.drawText(labelTable.chars, labelTable.offsets[i], labelTable.lengths[i],
+                    labelTable.x[i], labelTable.baselines[i], paint);
+        }
+    }
+
+    private void drawTicks(Canvas canvas, int from, int to, Paint paint) {
+        if (to > from) {
+            canvas.drawLines(tickGeometry.tickPoints, from * TickGeometry.FLOATS_PER_TICK,
+                    (to - from) * TickGeometry.FLOATS_PER_TICK, paint);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.drawable.Drawable;
+import android.util.LruCache;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Draws read-only protractors without a view, for lists showing many readings.
+ * A renderer copies the style and tick attributes of a template {@link ProtractorView} once, then draws
+ * any angle at any size onto a {@link Canvas}, or into a cached {@link Bitmap} which can be shown by an ImageView.
+ * Every method is safe to call from any thread, so bitmaps can be produced on a background pool.
+ * <p>
+ * Rendered bitmaps are kept in an LRU cache keyed on the size and the angle, the style being the renderer's.
+ * Every bitmap returned by {@link #render} is held by the caller until it is handed back with {@link #release}.
+ * A bitmap evicted from the cache is only redrawn for another reading once nobody holds it anymore,
+ * The renderer only references held bitmaps weakly: a bitmap which is never released is not reused,
+ * it is garbage collected once evicted and no longer referenced by its holders.
+ */
+public final class ProtractorRenderer {
+
+    private static final int MAX = 180;
+    //Default size of the bitmap cache
+    private static final int DEFAULT_CACHE_BYTES = 4 * 1024 * 1024;
+    //Evicted bitmaps kept for reuse
+    private static final int MAX_POOLED_BITMAPS = 8;
+    private static final int[] ENABLED_STATE = {android.R.attr.state_enabled};
+
+    private final ProtractorStyle mStyle;
+    private final Resources mResources;
+    private final float mDensity;
+    private final int mTickOffset;
+    private final int mTickLength;
+    private final int mTickIntervals;
+    private final int mTicksBetweenLabel;
+    private final boolean mDrawThumb;
+
+    //Also guards the holder counts and the pool
+    private final LruCache<Key, Bitmap> mCache;
+    //Number of render calls not released yet, per bitmap. Bitmap keeps the identity equals and hashCode,
+    //and the keys are weak so a bitmap its holders forgot to release is collected once evicted
+    private final Map<Bitmap, Integer> mHolders = new WeakHashMap<Bitmap, Integer>();
+    //Bitmaps evicted from the cache while still held, pooled when their last holder releases them
+    private final Set<Bitmap> mEvictedHeld = Collections.newSetFromMap(new WeakHashMap<Bitmap, Boolean>());
+    //Bitmaps nobody holds, redrawn for the next reading of the same size
+    private final ArrayDeque<Bitmap> mPool = new ArrayDeque<Bitmap>();
+
+    //Geometry is mutable, every thread lays out and draws with its own painter and thumb
+    private final ThreadLocal<Target> mTargets = new ThreadLocal<Target>() {
+        @Override
+        protected Target initialValue() {
+            return new Target();
+        }
+    };
+
+    /**
+     * @param template view whose style and tick attributes are drawn, later changes to it are not picked up
+     */
+    public ProtractorRenderer(ProtractorView template) {
+        this(template, DEFAULT_CACHE_BYTES);
+    }
+
+    /**
+     * @param template      view whose style and tick attributes are drawn, later changes to it are not picked up
+     * @param maxCacheBytes size of the bitmap cache in bytes
+     */
+    public ProtractorRenderer(ProtractorView template, int maxCacheBytes) {
+        mStyle = template.getStyle();
+        mResources = template.getResources();
+        mDensity = mResources.getDisplayMetrics().density;
+        mTickOffset = template.getTickOffset();
+        mTickLength = template.getTickLength();
+        mTickIntervals = template.getTickIntervals();
+        mTicksBetweenLabel = template.getTicksBetweenLabel().ordinal();
+        //A disabled protractor has no thumb
+        mDrawThumb = template.isEnabled() && mStyle.thumbState != null;
+        mCache = new LruCache<Key, Bitmap>(maxCacheBytes) {
+            @Override
+            protected int sizeOf(Key key, Bitmap bitmap) {
+                return bitmap.getRowBytes() * bitmap.getHeight();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Key key, Bitmap oldValue, Bitmap newValue) {
+                //Always called with the cache locked, see render and clearCache
+                if (mHolders.containsKey(oldValue)) {
+                    mEvictedHeld.add(oldValue);
+                } else {
+                    pool(oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * Draws the protractor, as a {@link ProtractorView} of the given size would, at the origin of the canvas.
+     *
+     * @param angle angle to highlight, clamped to 0 - 180
+     */
+    public void draw(Canvas canvas, int width, int height, int angle) {
+        angle = (angle > MAX) ? MAX : (angle < 0) ? 0 : angle;
+        Target target = mTargets.get();
+        target.layout(width, height);
+        target.painter.draw(canvas, angle, MAX, mStyle);
+        if (target.thumb != null) {
+            ArcLayout arcLayout = target.painter.arcLayout;
+            target.painter.drawThumb(canvas, target.thumb, arcLayout.thumbX(angle), arcLayout.thumbY(angle));
+        }
+    }
+
+    /**
+     * Returns a bitmap of the protractor at the given size and angle, drawing it only if it is not cached.
+     * The bitmap is shared with every caller asking for the same reading, it must be neither modified nor recycled.
+     * It is never drawn over while held: pass it to {@link #release} once it is not shown anymore,
+     * e.g. when the list row showing it is recycled.
+     *
+     * @param width  width of the bitmap, as the width of a ProtractorView
+     * @param height height of the bitmap, as the height of a ProtractorView
+     * @param angle  angle to highlight, clamped to 0 - 180
+     */
+    public Bitmap render(int width, int height, int angle) {
+        angle = (angle > MAX) ? MAX : (angle < 0) ? 0 : angle;
+        Key key = new Key(width, height, angle);
+        synchronized (mCache) {
+            Bitmap cached = mCache.get(key);
+            if (cached != null) {
+                hold(cached);
+                return cached;
+            }
+        }
+        Bitmap bitmap = obtain(width, height);
+        draw(new Canvas(bitmap), width, height, angle);
+        synchronized (mCache) {
+            //Another thread may have rendered the same reading meanwhile, keep the first one
+            Bitmap cached = mCache.get(key);
+            if (cached != null) {
+                pool(bitmap);
+                hold(cached);
+                return cached;
+            }
+            //Held before it is cached, a bitmap too large for the cache is evicted right away
+            hold(bitmap);
+            mCache.put(key, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Hands back a bitmap returned by {@link #render}, once for every call which returned it.
+     * The caller must not use the bitmap afterwards, it may be redrawn for another reading.
+     *
+     * @throws IllegalArgumentException if the bitmap is not held, it was not returned by this renderer
+     *                                  or it was released more often than rendered
+     */
+    public void release(Bitmap bitmap) {
+        synchronized (mCache) {
+            Integer holders = mHolders.get(bitmap);
+            if (holders == null) {
+                throw new IllegalArgumentException("Bitmap not held from this renderer");
+            }
+            if (holders > 1) {
+                mHolders.put(bitmap, holders - 1);
+                return;
+            }
+            mHolders.remove(bitmap);
+            if (mEvictedHeld.remove(bitmap)) {
+                pool(bitmap);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached bitmap and the pool. Bitmaps still held stay valid until they are released.
+     */
+    public void clearCache() {
+        synchronized (mCache) {
+            mCache.evictAll();
+            mPool.clear();
+        }
+    }
+
+    //Returns a cleared bitmap of the given size, from the pool when possible
+    private Bitmap obtain(int width, int height) {
+        synchronized (mCache) {
+            for (Bitmap bitmap : mPool) {
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    mPool.remove(bitmap);
+                    bitmap.eraseColor(Color.TRANSPARENT);
+                    return bitmap;
+                }
+            }
+        }
+        return Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+    }
+
+    //Called with the cache locked
+    private void hold(Bitmap bitmap) {
+        Integer holders = mHolders.get(bitmap);
+        mHolders.put(bitmap, (holders == null) ? 1 : holders + 1);
+    }
+
+    //Called with the cache locked, for bitmaps nobody holds
+    private void pool(Bitmap bitmap) {
+        if (mPool.size() >= MAX_POOLED_BITMAPS) {
+            mPool.pollFirst();
+        }
+        mPool.addLast(bitmap);
+    }
+
+    /**
+     * Per thread drawing state.
+     */
+    private final class Target {
+        final ProtractorPainter painter = new ProtractorPainter();
+        final Drawable thumb;
+        private int mWidth = -1;
+        private int mHeight = -1;
+
+        Target() {
+            if (mDrawThumb) {
+                thumb = mStyle.thumbState.newDrawable(mResources);
+                ProtractorView.setThumbBounds(thumb);
+                thumb.setState(ENABLED_STATE);
+            } else {
+                thumb = null;
+            }
+        }
+
+        void layout(int width, int height) {
+            if (width == mWidth && height == mHeight) {
+                return;
+            }
+            mWidth = width;
+            mHeight = height;
+            painter.measure(width, height, mTickOffset, mTickLength, mDensity);
+            painter.rebuild(mTickOffset, mTickLength, mTickIntervals, mTicksBetweenLabel, MAX, mDensity, mStyle);
+        }
+    }
+
+    private static final class Key {
+        final int width;
+        final int height;
+        final int angle;
+
+        Key(int width, int height, int angle) {
+            this.width = width;
+            this.height = height;
+            this.angle = angle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return width == that.width && height == that.height && angle == that.angle;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = width;
+            result = 31 * result + height;
+            result = 31 * result + angle;
+            return result;
+        }
+    }
+}
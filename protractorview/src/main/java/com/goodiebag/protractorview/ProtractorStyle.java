@@ -0,0 +1,335 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resolved visual style of a {@link ProtractorView}: colors, stroke widths, text size, the thumb and the paints built from them.
+ * Styles are immutable and interned, so every view with the same resolved style shares one instance and its paints.
+ * A view changing a single property gets a new style through {@link #buildUpon()}, which reuses every paint
+ * the change does not affect. The paints are only created by {@link #ensurePaints()}, when the style is first
+ * measured or drawn with, and must never be modified afterwards.
+ */
+final class ProtractorStyle {
+
+    //Number of distinct styles kept for sharing, least recently used ones are dropped first
+    private static final int CACHE_SIZE = 32;
+
+    private static final Map<ProtractorStyle, ProtractorStyle> sCache =
+            new LinkedHashMap<ProtractorStyle, ProtractorStyle>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ProtractorStyle, ProtractorStyle> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+
+    final int arcColor;
+    final int arcProgressColor;
+    final int textColor;
+    final int textProgressColor;
+    final int tickColor;
+    final int tickProgressColor;
+    final int arcWidth;
+    final int arcProgressWidth;
+    final int tickWidth;
+    final int tickProgressWidth;
+    final int angleTextSize;
+    final boolean roundedEdges;
+    //Shared state of the thumb drawable, each view draws its own instance
+    final Drawable.ConstantState thumbState;
+
+    //Paints, created once by ensurePaints
+    Paint arcPaint;
+    Paint arcProgressPaint;
+    Paint tickPaint;
+    Paint tickProgressPaint;
+    Paint textPaint;
+    Paint textProgressPaint;
+    //Offset from a label's anchor to its baseline, centering the text vertically
+    float labelBaselineOffset;
+    //Style whose paints are reused, kept until the paints are created
+    private ProtractorStyle mPaintBase;
+
+    private ProtractorStyle(Builder builder) {
+        arcColor = builder.arcColor;
+        arcProgressColor = builder.arcProgressColor;
+        textColor = builder.textColor;
+        textProgressColor = builder.textProgressColor;
+        tickColor = builder.tickColor;
+        tickProgressColor = builder.tickProgressColor;
+        arcWidth = builder.arcWidth;
+        arcProgressWidth = builder.arcProgressWidth;
+        tickWidth = builder.tickWidth;
+        tickProgressWidth = builder.tickProgressWidth;
+        angleTextSize = builder.angleTextSize;
+        roundedEdges = builder.roundedEdges;
+        thumbState = builder.thumbState;
+    }
+
+    Builder buildUpon() {
+        return new Builder(this);
+    }
+
+    /**
+     * Returns the shared instance equal to the given one.
+     *
+     * @param base style the new one derives from, its paints are reused when they match
+     */
+    private static ProtractorStyle intern(ProtractorStyle style, ProtractorStyle base) {
+        synchronized (sCache) {
+            ProtractorStyle cached = sCache.get(style);
+            if (cached != null) {
+                return cached;
+            }
+            style.mPaintBase = base;
+            sCache.put(style, style);
+            return style;
+        }
+    }
+
+    /**
+     * Forgets every interned style, for tests and benchmarks measuring a cold inflation.
+     */
+    static void clearCache() {
+        synchronized (sCache) {
+            sCache.clear();
+        }
+    }
+
+    /**
+     * Creates the paints unless they exist. Safe to call from any thread, the paints can be read once it returns.
+     */
+    synchronized void ensurePaints() {
+        if (arcPaint == null) {
+            //Paints are only borrowed from a base which has been drawn with
+            ProtractorStyle base = mPaintBase;
+            createPaints((base != null && base.hasPaints()) ? base : null);
+            mPaintBase = null;
+        }
+    }
+
+    private synchronized boolean hasPaints() {
+        return arcPaint != null;
+    }
+
+    private void createPaints(ProtractorStyle base) {
+        boolean sameArc = base != null && base.roundedEdges == roundedEdges;
+        arcPaint = (sameArc && base.arcColor == arcColor && base.arcWidth == arcWidth)
+                ? base.arcPaint : strokePaint(arcColor, arcWidth, roundedEdges);
+        arcProgressPaint = (sameArc && base.arcProgressColor == arcProgressColor && base.arcProgressWidth == arcProgressWidth)
+                ? base.arcProgressPaint : strokePaint(arcProgressColor, arcProgressWidth, roundedEdges);
+        tickPaint = (base != null && base.tickColor == tickColor && base.tickWidth == tickWidth)
+                ? base.tickPaint : strokePaint(tickColor, tickWidth, false);
+        tickProgressPaint = (base != null && base.tickProgressColor == tickProgressColor && base.tickProgressWidth == tickProgressWidth)
+                ? base.tickProgressPaint : strokePaint(tickProgressColor, tickProgressWidth, false);
+
+        boolean sameText = base != null && base.angleTextSize == angleTextSize;
+        textPaint = (sameText && base.textColor == textColor) ? base.textPaint : textPaint(textColor, angleTextSize);
+        textProgressPaint = (sameText && base.textProgressColor == textProgressColor)
+                ? base.textProgressPaint : textPaint(textProgressColor, angleTextSize);
+        if (sameText) {
+            labelBaselineOffset = base.labelBaselineOffset;
+        } else {
+            Paint.FontMetrics fontMetrics = textPaint.getFontMetrics();
+            labelBaselineOffset = -(fontMetrics.ascent + fontMetrics.descent) / 2;
+        }
+    }
+
+    private static Paint strokePaint(int color, int width, boolean roundedEdges) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(width);
+        if (roundedEdges) {
+            paint.setStrokeCap(Paint.Cap.ROUND);
+        }
+        return paint;
+    }
+
+    private static Paint textPaint(int color, int textSize) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setTextSize(textSize);
+        paint.setTextAlign(Paint.Align.CENTER);
+        return paint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProtractorStyle)) {
+            return false;
+        }
+        ProtractorStyle that = (ProtractorStyle) o;
+        return arcColor == that.arcColor
+                && arcProgressColor == that.arcProgressColor
+                && textColor == that.textColor
+                && textProgressColor == that.textProgressColor
+                && tickColor == that.tickColor
+                && tickProgressColor == that.tickProgressColor
+                && arcWidth == that.arcWidth
+                && arcProgressWidth == that.arcProgressWidth
+                && tickWidth == that.tickWidth
+                && tickProgressWidth == that.tickProgressWidth
+                && angleTextSize == that.angleTextSize
+                && roundedEdges == that.roundedEdges
+                && thumbState == that.thumbState;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = arcColor;
+        result = 31 * result + arcProgressColor;
+        result = 31 * result + textColor;
+        result = 31 * result + textProgressColor;
+        result = 31 * result + tickColor;
+        result = 31 * result + tickProgressColor;
+        result = 31 * result + arcWidth;
+        result = 31 * result + arcProgressWidth;
+        result = 31 * result + tickWidth;
+        result = 31 * result + tickProgressWidth;
+        result = 31 * result + angleTextSize;
+        result = 31 * result + (roundedEdges ? 1 : 0);
+        result = 31 * result + System.identityHashCode(thumbState);
+        return result;
+    }
+
+    /**
+     * Mutable description of a style, {@link #build()} returns the shared instance.
+     */
+    static final class Builder {
+
+        private final ProtractorStyle mBase;
+        int arcColor;
+        int arcProgressColor;
+        int textColor;
+        int textProgressColor;
+        int tickColor;
+        int tickProgressColor;
+        int arcWidth;
+        int arcProgressWidth;
+        int tickWidth;
+        int tickProgressWidth;
+        int angleTextSize;
+        boolean roundedEdges;
+        Drawable.ConstantState thumbState;
+
+        Builder() {
+            mBase = null;
+        }
+
+        private Builder(ProtractorStyle base) {
+            mBase = base;
+            arcColor = base.arcColor;
+            arcProgressColor = base.arcProgressColor;
+            textColor = base.textColor;
+            textProgressColor = base.textProgressColor;
+            tickColor = base.tickColor;
+            tickProgressColor = base.tickProgressColor;
+            arcWidth = base.arcWidth;
+            arcProgressWidth = base.arcProgressWidth;
+            tickWidth = base.tickWidth;
+            tickProgressWidth = base.tickProgressWidth;
+            angleTextSize = base.angleTextSize;
+            roundedEdges = base.roundedEdges;
+            thumbState = base.thumbState;
+        }
+
+        Builder arcColor(int color) {
+            arcColor = color;
+            return this;
+        }
+
+        Builder arcProgressColor(int color) {
+            arcProgressColor = color;
+            return this;
+        }
+
+        Builder textColor(int color) {
+            textColor = color;
+            return this;
+        }
+
+        Builder textProgressColor(int color) {
+            textProgressColor = color;
+            return this;
+        }
+
+        Builder tickColor(int color) {
+            tickColor = color;
+            return this;
+        }
+
+        Builder tickProgressColor(int color) {
+            tickProgressColor = color;
+            return this;
+        }
+
+        Builder arcWidth(int width) {
+            arcWidth = width;
+            return this;
+        }
+
+        Builder arcProgressWidth(int width) {
+            arcProgressWidth = width;
+            return this;
+        }
+
+        Builder tickWidth(int width) {
+            tickWidth = width;
+            return this;
+        }
+
+        Builder tickProgressWidth(int width) {
+            tickProgressWidth = width;
+            return this;
+        }
+
+        Builder angleTextSize(int textSize) {
+            angleTextSize = textSize;
+            return this;
+        }
+
+        Builder roundedEdges(boolean rounded) {
+            roundedEdges = rounded;
+            return this;
+        }
+
+        Builder thumbState(Drawable.ConstantState state) {
+            thumbState = state;
+            return this;
+        }
+
+        ProtractorStyle build() {
+            return intern(new ProtractorStyle(this), mBase);
+        }
+    }
+}
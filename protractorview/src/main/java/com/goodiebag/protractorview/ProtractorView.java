@@ -21,16 +21,30 @@ SOFTWARE.
 package com.goodiebag.protractorview;
 
 import android.content.Context;
-import android.content.res.Resources;
-import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Paint;
+import android.graphics.Color;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.os.SystemClock;
 import android.support.annotation.ColorInt;
+import android.support.v4.os.TraceCompat;
+import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.view.animation.AnimationUtils;
+import android.view.animation.DecelerateInterpolator;
+import android.view.animation.Interpolator;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This class implements a widget for android which is a semi-circular seekbar drawn like a protractor with ticks.
@@ -43,56 +57,137 @@ import android.view.View;
  * @author Koushik
  */
 
-public class ProtractorView extends View {
+public class ProtractorView extends ViewGroup {
 
     private static final int MAX = 180;
+    //Angle changes sweeping more than this repaint the whole view instead of the dirty sector
+    private static final int MAX_DIRTY_SWEEP = 90;
+    //Frame interval assumed when the display refresh rate is unknown
+    private static final long DEFAULT_FRAME_INTERVAL_MILLIS = 16;
     private final float DENSITY = getContext().getResources().getDisplayMetrics().density;
 
     /**
      * Private variables
      */
-    //Rectangle for the arc
-    private RectF mArcRect = new RectF();
-
-    //Paints required for drawing
-    private Paint mArcPaint;
-    private Paint mArcProgressPaint;
-    private Paint mTickPaint;
-    private Paint mTickProgressPaint;
-    private Paint mTickTextPaint;
-    private Paint mTickTextColoredPaint;
-
-    //Arc related dimens
-    private int mArcRadius = 0;
-    private int mArcWidth = 2;
-    private int mArcProgressWidth = 2;
-    private boolean mRoundedEdges = true;
+    //Geometry and drawing code, shared with ProtractorRenderer
+    private final ProtractorPainter mPainter = new ProtractorPainter();
+    //Layout math and rectangle for the arc
+    private final ArcLayout mArcLayout = mPainter.arcLayout;
+    private final RectF mArcRect = mPainter.arcRect;
+    //Size the layout was computed for, the layout is dirty until the first measure pass
+    private int mLayoutWidth;
+    private int mLayoutHeight;
+    private boolean mLayoutDirty = true;
+
+    //Reused rectangle for partial invalidation
+    private final Rect mDirtyRect = new Rect();
+
+    //Cached tick end points and labels, rebuilt whenever the size or the tick attributes change
+    private final TickGeometry mTickGeometry = mPainter.tickGeometry;
+    private final LabelTable mLabelTable = mPainter.labelTable;
+
+    //Colors, widths, text size and the paints built from them, shared with every view of the same style
+    private ProtractorStyle mStyle;
+
+    //Optional bitmap cache of the arc, ticks and labels drawn in their non highlighted colors
+    private boolean mCacheStaticLayer = false;
+    private Bitmap mStaticLayer;
+    private boolean mStaticLayerDirty = true;
 
     //Thumb Drawable
     private Drawable mThumb;
 
     //Thumb position related coordinates
-    private int mTranslateX;
-    private int mTranslateY;
     private int mThumbXPos;
     private int mThumbYPos;
-
-    private int mAngleTextSize = 12;
-
-    private int mTickOffset = 12;
-    private int mTickLength = 10;
-    private int mTickWidth = 2;
-    private int mTickProgressWidth = 2;
-    private int mAngle = 0;
-    private boolean mTouchInside = true;
-    private boolean mEnabled = true;
-    private TicksBetweenLabel mTicksBetweenLabel = TicksBetweenLabel.TWO;
-    private int mTickIntervals = 15;
+    //Draws the thumb and the progress arc from child views when enabled, see setThumbLayerEnabled
+    private ThumbLayer mThumbLayer;
+
+    //Set from ProtractorAttributes
+    private int mTickOffset;
+    private int mTickLength;
+    private int mAngle;
+    private boolean mTouchInside;
+    private boolean mEnabled;
+    private TicksBetweenLabel mTicksBetweenLabel;
+    private int mTickIntervals;
     private double mTouchAngle = 0;
-    private float mTouchIgnoreRadius;
+    //Time of the last touch sample, -1 when no gesture is in progress
+    private long mTouchTime = -1;
+    //Angular velocity of the gesture in degrees per second
+    private double mTouchVelocity = 0;
+    //Uptime of the touch event behind the last angle change from the user
+    private long mTouchEventTime;
+
+    //Optional touch prediction, see setTouchPredictionEnabled
+    private boolean mPredictTouch = false;
+    private final TouchPredictor mTouchPredictor = new TouchPredictor(MAX);
+    private double mPredictedTouchAngle;
+    private long mFrameIntervalMillis = DEFAULT_FRAME_INTERVAL_MILLIS;
+    //Angle the thumb and the progress arc are drawn at, differs from mAngle only while a prediction is shown
+    private int mDrawAngle = 0;
+
+    //Optional instrumentation, see setMetrics
+    private ProtractorMetrics mMetrics;
+    //Optional touch recording, see setTouchTraceRecorder
+    private TouchTraceRecorder mTouchTraceRecorder;
+
+    //Optional redraw cap, see setMaxFrameRate. Angle moves closer than the interval wait for the next slot
+    private int mMaxFrameRate = 0;
+    private long mMinFrameIntervalMillis = 0;
+    private long mLastDrawAngleTime;
+    private int mPendingDrawAngle;
+    private boolean mDrawAnglePending;
+    private final Runnable mDrawAngleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mDrawAnglePending = false;
+            mLastDrawAngleTime = SystemClock.uptimeMillis();
+            moveDrawAngle(mPendingDrawAngle);
+        }
+    };
+
+    //Angle animation state, see animateAngleTo
+    private static final Interpolator DEFAULT_INTERPOLATOR = new DecelerateInterpolator();
+    private final AngleAnimation mAngleAnimation = new AngleAnimation();
+    private final Runnable mAnimationRunnable = new Runnable() {
+        @Override
+        public void run() {
+            onAnimationFrame();
+        }
+    };
+
+    //Angles submitted from any thread, applied once per frame, see submitAngle
+    private static final int NO_SUBMITTED_ANGLE = Integer.MIN_VALUE;
+    private final AtomicInteger mSubmittedAngle = new AtomicInteger(NO_SUBMITTED_ANGLE);
+    private final AtomicBoolean mSubmitScheduled = new AtomicBoolean();
+    private final Runnable mSubmitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            applySubmittedAngle();
+        }
+    };
 
     //Event listener
     private OnProtractorViewChangeListener mOnProtractorViewChangeListener = null;
+    private DispatchMode mDispatchMode = DispatchMode.IMMEDIATE;
+    private int mLastDispatchedAngle = Integer.MIN_VALUE;
+    private boolean mDispatchScheduled;
+    private boolean mPendingFromUser;
+    private final Runnable mDispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flushProgressChanged();
+        }
+    };
+
+    //Reused by every edit() batch
+    private Editor mEditor;
+
+    //Observers notified on their own executors, the array is replaced, never modified, when one is added or removed
+    private static final ConflatingAngleObserver[] NO_OBSERVERS = new ConflatingAngleObserver[0];
+    private ConflatingAngleObserver[] mAngleObservers = NO_OBSERVERS;
+    private int mLastObservedAngle = Integer.MIN_VALUE;
 
 
     //Interface for event listener
@@ -104,10 +199,33 @@ public class ProtractorView extends View {
         void onStopTrackingTouch(ProtractorView protractorView);
     }
 
+    /**
+     * Receives angle changes on a background executor, see {@link #addAngleObserver(OnAngleChangeObserver, Executor)}.
+     */
+    public interface OnAngleChangeObserver {
+        /**
+         * @param angle    the newest angle, intermediate angles are skipped while the observer is busy
+         * @param fromUser true if the change comes from a touch
+         * @param isFinal  true for the delivery made when the user lifts the finger
+         */
+        void onAngleChanged(int angle, boolean fromUser, boolean isFinal);
+    }
+
     public enum TicksBetweenLabel {
         ZERO, ONE, TWO, THREE
     }
 
+    /**
+     * How {@link OnProtractorViewChangeListener#onProgressChanged} calls are delivered.
+     * IMMEDIATE : on every angle update, even if the angle did not change.
+     * DISTINCT : only when the angle differs from the last delivered one.
+     * PER_FRAME : at most once per frame with the latest angle, only if it differs from the last delivered one.
+     * In every mode onStartTrackingTouch / onStopTrackingTouch are preceded by any pending onProgressChanged.
+     */
+    public enum DispatchMode {
+        IMMEDIATE, DISTINCT, PER_FRAME
+    }
+
     public ProtractorView(Context context) {
         super(context);
         init(context, null, 0);
@@ -126,236 +244,267 @@ public class ProtractorView extends View {
     /**
      * A method to initialise the attributes from the XML.
      * If not specified in the xml the default values are taken.
+     * Values coming from the theme are resolved once per configuration and shared, see {@link ProtractorAttributes}.
+     * The thumb drawable and the paints are only created when the view is first measured or drawn.
      *
      * @param context
      * @param attrs
      * @param defStyle
      */
     private void init(Context context, AttributeSet attrs, int defStyle) {
+        //A ViewGroup skips onDraw by default
+        setWillNotDraw(false);
+        ProtractorAttributes attributes = ProtractorAttributes.obtain(context, attrs, defStyle, 0);
+        mStyle = attributes.style;
+        mTickOffset = attributes.tickOffset;
+        mTickLength = attributes.tickLength;
+        mAngle = attributes.angle;
+        mTickIntervals = attributes.tickIntervals;
+        mTicksBetweenLabel = TicksBetweenLabel.values()[attributes.ticksBetweenLabel];
+        mEnabled = attributes.enabled;
+        mTouchInside = attributes.touchInside;
+        mCacheStaticLayer = attributes.cacheStaticLayer;
+        mPredictTouch = attributes.touchPrediction;
+        mAngle = (mAngle > MAX) ? MAX : ((mAngle < 0) ? 0 : mAngle);
+        mDrawAngle = mAngle;
+        //Null unless the layout sets its own thumb, see ensureThumb
+        mThumb = attributes.thumb;
+        if (mThumb != null) {
+            setThumbBounds(mThumb);
+        }
+        if (attributes.thumbLayer) {
+            setThumbLayerEnabled(true);
+        }
+        setMaxFrameRate(attributes.maxFrameRate);
+    }
 
-        final Resources res = getResources();
-
-        /**
-         * Defaults, may need to link this into theme settings
-         */
-        int arcColor = res.getColor(R.color.progress_gray);
-        int arcProgressColor = res.getColor(R.color.default_blue_light);
-        int textColor = res.getColor(R.color.progress_gray);
-        int textProgressColor = res.getColor(R.color.default_blue_light);
-        int tickColor = res.getColor(R.color.progress_gray);
-        int tickProgressColor = res.getColor(R.color.default_blue_light);
-        int thumbHalfHeight = 0;
-        int thumbHalfWidth = 0;
-
-        mThumb = res.getDrawable(R.drawable.thumb_selector);
-
-        /**
-         * Convert all default dimens to pixels for current density
-         */
-        mArcWidth = (int) (mArcWidth * DENSITY);
-        mArcProgressWidth = (int) (mArcProgressWidth * DENSITY);
-        mAngleTextSize = (int) (mAngleTextSize * DENSITY);
-        mTickOffset = (int) (mTickOffset * DENSITY);
-        mTickLength = (int) (mTickLength * DENSITY);
-        mTickWidth = (int) (mTickWidth * DENSITY);
-        mTickProgressWidth = (int) (mTickProgressWidth * DENSITY);
-
-        if (attrs != null) {
-            final TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.ProtractorView, defStyle, 0);
-            Drawable thumb = array.getDrawable(R.styleable.ProtractorView_thumb);
-            if (thumb != null) {
-                mThumb = thumb;
+    /**
+     * Creates the thumb from the style on first use.
+     */
+    private Drawable ensureThumb() {
+        if (mThumb == null) {
+            mThumb = mStyle.thumbState.newDrawable(getResources());
+            setThumbBounds(mThumb);
+            if (mThumb.isStateful()) {
+                mThumb.setState(getDrawableState());
             }
-            thumbHalfHeight = mThumb.getIntrinsicHeight() / 2;
-            thumbHalfWidth = mThumb.getIntrinsicWidth() / 2;
-            mThumb.setBounds(-thumbHalfWidth, -thumbHalfHeight, thumbHalfWidth, thumbHalfHeight);
-            //Dimensions
-            mAngleTextSize = (int) array.getDimension(R.styleable.ProtractorView_angleTextSize, mAngleTextSize);
-            mArcProgressWidth = (int) array.getDimension(R.styleable.ProtractorView_progressWidth, mArcProgressWidth);
-            mTickOffset = (int) array.getDimension(R.styleable.ProtractorView_tickOffset, mTickOffset);
-            mTickLength = (int) array.getDimension(R.styleable.ProtractorView_tickLength, mTickLength);
-            mArcWidth = (int) array.getDimension(R.styleable.ProtractorView_arcWidth, mArcWidth);
-            //Integers
-            mAngle = array.getInteger(R.styleable.ProtractorView_angle, mAngle);
-            mTickIntervals = array.getInt(R.styleable.ProtractorView_tickIntervals, mTickIntervals);
-            //Colors
-            arcColor = array.getColor(R.styleable.ProtractorView_arcColor, arcColor);
-            arcProgressColor = array.getColor(R.styleable.ProtractorView_arcProgressColor, arcProgressColor);
-            textColor = array.getColor(R.styleable.ProtractorView_textColor, textColor);
-            textProgressColor = array.getColor(R.styleable.ProtractorView_textProgressColor, textProgressColor);
-            tickColor = array.getColor(R.styleable.ProtractorView_tickColor, tickColor);
-            tickProgressColor = array.getColor(R.styleable.ProtractorView_tickProgressColor, tickProgressColor);
-            //Boolean
-            mRoundedEdges = array.getBoolean(R.styleable.ProtractorView_roundEdges, mRoundedEdges);
-            mEnabled = array.getBoolean(R.styleable.ProtractorView_enabled, mEnabled);
-            mTouchInside = array.getBoolean(R.styleable.ProtractorView_touchInside, mTouchInside);
-            int ordinal = array.getInt(R.styleable.ProtractorView_ticksBetweenLabel, mTicksBetweenLabel.ordinal());
-            mTicksBetweenLabel = TicksBetweenLabel.values()[ordinal];
-
         }
-        /**
-         * Creating and configuring the paints as  required.
-         */
-        mAngle = (mAngle > MAX) ? MAX : ((mAngle < 0) ? 0 : mAngle);
-
-        mArcPaint = new Paint();
-        mArcPaint.setColor(arcColor);
-        mArcPaint.setAntiAlias(true);
-        mArcPaint.setStyle(Paint.Style.STROKE);
-        mArcPaint.setStrokeWidth(mArcWidth);
+        return mThumb;
+    }
 
-        mArcProgressPaint = new Paint();
-        mArcProgressPaint.setColor(arcProgressColor);
-        mArcProgressPaint.setAntiAlias(true);
-        mArcProgressPaint.setStyle(Paint.Style.STROKE);
-        mArcProgressPaint.setStrokeWidth(mArcProgressWidth);
+    static void setThumbBounds(Drawable thumb) {
+        int thumbHalfHeight = thumb.getIntrinsicHeight() / 2;
+        int thumbHalfWidth = thumb.getIntrinsicWidth() / 2;
+        thumb.setBounds(-thumbHalfWidth, -thumbHalfHeight, thumbHalfWidth, thumbHalfHeight);
+    }
 
-        if (mRoundedEdges) {
-            mArcPaint.setStrokeCap(Paint.Cap.ROUND);
-            mArcProgressPaint.setStrokeCap(Paint.Cap.ROUND);
+    /**
+     * Switches to the given style, rebuilding what depends on the text size and the static layer.
+     *
+     * @return false if the style did not change
+     */
+    private boolean setStyle(ProtractorStyle style) {
+        int textSize = mStyle.angleTextSize;
+        if (!applyStyle(style)) {
+            return false;
         }
+        if (mStyle.angleTextSize != textSize && !mLayoutDirty) {
+            mLabelTable.rebuild(mTickGeometry, mStyle);
+        }
+        return true;
+    }
 
-        mTickPaint = new Paint();
-        mTickPaint.setColor(tickColor);
-        mTickPaint.setAntiAlias(true);
-        mTickPaint.setStyle(Paint.Style.STROKE);
-        mTickPaint.setStrokeWidth(mTickWidth);
-
-
-        mTickProgressPaint = new Paint();
-        mTickProgressPaint.setColor(tickProgressColor);
-        mTickProgressPaint.setAntiAlias(true);
-        mTickProgressPaint.setStyle(Paint.Style.STROKE);
-        mTickProgressPaint.setStrokeWidth(mTickProgressWidth);
-
-        mTickTextPaint = new Paint();
-        mTickTextPaint.setColor(textColor);
-        mTickTextPaint.setAntiAlias(true);
-        mTickTextPaint.setStyle(Paint.Style.FILL);
-        mTickTextPaint.setTextSize(mAngleTextSize);
-        mTickTextPaint.setTextAlign(Paint.Align.CENTER);
-
-        mTickTextColoredPaint = new Paint();
-        mTickTextColoredPaint.setColor(textProgressColor);
-        mTickTextColoredPaint.setAntiAlias(true);
-        mTickTextColoredPaint.setStyle(Paint.Style.FILL);
-        mTickTextColoredPaint.setTextSize(mAngleTextSize);
-        mTickTextColoredPaint.setTextAlign(Paint.Align.CENTER);
+    /**
+     * Switches to the given style without redrawing. The labels, measured with the text paint, are left to the caller.
+     *
+     * @return true if the style changed
+     */
+    private boolean applyStyle(ProtractorStyle style) {
+        //An equal style may be another instance once the interned one has been dropped
+        if (style.equals(mStyle)) {
+            return false;
+        }
+        mStyle = style;
+        invalidateStaticLayer();
+        if (mThumbLayer != null) {
+            mThumbLayer.setStyle(mStyle);
+        }
+        return true;
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-
+        TraceCompat.beginSection("ProtractorView.onMeasure");
         int height = getDefaultSize(getSuggestedMinimumHeight(),
                 heightMeasureSpec);
         int width = getDefaultSize(getSuggestedMinimumWidth(),
                 widthMeasureSpec);
-        int min = Math.min(width, height);
-        //width = min;
-        height = min / 2;
-
-
-        float top = 0;
-        float left = 0;
-        int arcDiameter = 0;
-
-        int tickEndToArc = (mTickOffset + mTickLength);
-
-        arcDiameter = min - 2 * tickEndToArc;
-        arcDiameter = (int) (arcDiameter - 2 * 20 * DENSITY);
-        mArcRadius = arcDiameter / 2;
+        //Geometry only depends on the resolved size and the tick dimensions, a repeated pass reuses it
+        if (mLayoutDirty || width != mLayoutWidth || height != mLayoutHeight) {
+            mLayoutWidth = width;
+            mLayoutHeight = height;
+            mLayoutDirty = false;
+            updateLayout();
+        }
+        setMeasuredDimension(mArcLayout.measuredWidth, mArcLayout.measuredHeight);
+        TraceCompat.endSection();
+    }
 
+    /**
+     * Recomputes everything derived from the size: the arc, the thumb position, the touch ring and the ticks.
+     */
+    private void updateLayout() {
+        ensureThumb();
+        mPainter.measure(mLayoutWidth, mLayoutHeight, mTickOffset, mTickLength, DENSITY);
 
-        top = height - (mArcRadius);
-        left = width / 2 - mArcRadius;
+        updateThumbPosition();
+        updateTouchIgnoreRadius();
+        rebuildGeometry();
+        if (mThumbLayer != null) {
+            mThumbLayer.invalidateProgress();
+        }
+    }
 
-        mArcRect.set(left, top, left + arcDiameter, top + arcDiameter);
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        if (mThumbLayer != null) {
+            mThumbLayer.layout(right - left, bottom - top);
+        }
+    }
 
-        mTranslateX = (int) mArcRect.centerX();
-        mTranslateY = (int) mArcRect.centerY();
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
 
+    /**
+     * Marks the layout as stale after a change of the tick dimensions, which change the measured size.
+     */
+    private void invalidateLayout() {
+        mLayoutDirty = true;
+        requestLayout();
+        invalidate();
+    }
 
-        int thumbAngle = mAngle;
-        mThumbXPos = (int) (mArcRadius * Math.cos(Math.toRadians(thumbAngle)));
-        mThumbYPos = (int) (mArcRadius * Math.sin(Math.toRadians(thumbAngle)));
-        setTouchInside(mTouchInside);
-        setMeasuredDimension(width, height + tickEndToArc);
+    /**
+     * Rebuilds the ticks and labels after a change which keeps the size, unless the first measure pass
+     * is still to come and will build them anyway.
+     */
+    private void invalidateTickGeometry() {
+        if (!mLayoutDirty) {
+            rebuildGeometry();
+        }
+        invalidate();
     }
 
 
     @Override
     protected void onDraw(Canvas canvas) {
-        canvas.save();
-        canvas.scale(1, -1, mArcRect.centerX(), mArcRect.centerY());
-        canvas.drawArc(mArcRect, 0, MAX, false, mArcPaint);
-        canvas.drawArc(mArcRect, 0, mAngle, false, mArcProgressPaint);
+        TraceCompat.beginSection("ProtractorView.onDraw");
+        long start = (mMetrics != null) ? System.nanoTime() : 0;
+        if (mCacheStaticLayer) {
+            //The gray arc, ticks and labels come from the bitmap, only the highlighted part is drawn over it
+            canvas.drawBitmap(getStaticLayer(), 0, 0, null);
+            if (mThumbLayer == null) {
+                mPainter.drawProgress(canvas, mDrawAngle, mStyle);
+            } else {
+                mPainter.drawHighlights(canvas, mDrawAngle, mStyle);
+            }
+        } else if (mThumbLayer == null) {
+            mPainter.draw(canvas, mDrawAngle, MAX, mStyle);
+        } else {
+            //The progress arc and the thumb are drawn by the layer's child views
+            mPainter.drawBody(canvas, mDrawAngle, MAX, mStyle);
+        }
 
-        canvas.restore();
-        double slope, startTickX, startTickY, endTickX, endTickY, midTickX, midTickY, thetaInRadians;
-        double radiusOffset = mArcRadius + mTickOffset;
+        if (mEnabled && mThumbLayer == null) {
+            // Draw the thumb nail
+            mPainter.drawThumb(canvas, ensureThumb(), mThumbXPos, mThumbYPos);
+        }
+        if (mMetrics != null) {
+            mMetrics.recordTiming(ProtractorMetrics.Timing.DRAW, System.nanoTime() - start);
+        }
+        TraceCompat.endSection();
+    }
 
-        //TicksBetweenLabel
-        /**
-         * Mechanism to draw the tick and text.
-         * Tan(theta) gives the slope.
-         * Formula for a straight line is y = mx + c. y is calculated for varying values of x and the ticks are drawn.
-         */
 
-        int count = mTicksBetweenLabel.ordinal();
-        for (int i = 360; i >= 180; i -= mTickIntervals) {
-            canvas.save();
-            if (count == mTicksBetweenLabel.ordinal()) {
-                //for text
-                canvas.translate(mArcRect.centerX(), mArcRect.centerY());
-                thetaInRadians = Math.toRadians(i);
-                slope = Math.tan(thetaInRadians);
-                startTickX = (radiusOffset * Math.cos(thetaInRadians));
-                midTickX = startTickX + (((mTickLength / 2)) * Math.cos(thetaInRadians));
-                midTickY = slope * midTickX;
-                canvas.drawText("" + (360 - i), (float) midTickX, (float) midTickY, (mAngle <= 359 - i) ? mTickTextPaint : mTickTextColoredPaint);
-                count = 0;
-            } else {
-                //for tick
-                canvas.scale(-1, 1, mArcRect.centerX(), mArcRect.centerY());
-                canvas.translate(mArcRect.centerX(), mArcRect.centerY());
-                canvas.rotate(180);
-                thetaInRadians = Math.toRadians(360 - i);
-                slope = Math.tan(thetaInRadians);
-                startTickX = (radiusOffset * Math.cos(thetaInRadians));
-                startTickY = slope * startTickX;
-                endTickX = startTickX + ((mTickLength) * Math.cos(thetaInRadians));
-                endTickY = slope * endTickX;
-                canvas.drawLine((float) startTickX, (float) startTickY, (float) endTickX, (float) endTickY, (mAngle <= 359 - i) ? mTickPaint : mTickProgressPaint);
-                count++;
+    /**
+     * Returns the bitmap holding the parts of the protractor which do not depend on the angle,
+     * re-rendering it if the size or the style changed since it was last drawn.
+     */
+    private Bitmap getStaticLayer() {
+        int width = getWidth();
+        int height = getHeight();
+        if (mStaticLayer == null || mStaticLayer.getWidth() != width || mStaticLayer.getHeight() != height) {
+            if (mStaticLayer != null) {
+                mStaticLayer.recycle();
             }
-            canvas.restore();
+            mStaticLayer = Bitmap.createBitmap(Math.max(width, 1), Math.max(height, 1), Bitmap.Config.ARGB_8888);
+            mStaticLayerDirty = true;
+        }
+        if (mStaticLayerDirty) {
+            mStaticLayer.eraseColor(Color.TRANSPARENT);
+            mPainter.drawStatic(new Canvas(mStaticLayer), MAX, mStyle);
+            mStaticLayerDirty = false;
         }
+        return mStaticLayer;
+    }
 
+    private void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+    }
 
-        if (mEnabled) {
-            // Draw the thumb nail
-            canvas.save();
-            canvas.scale(-1, 1, mArcRect.centerX(), mArcRect.centerY());
-            canvas.translate(mTranslateX - mThumbXPos, mTranslateY - mThumbYPos);
-            mThumb.draw(canvas);
-            canvas.restore();
+    private void releaseStaticLayer() {
+        if (mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
         }
     }
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        updateFrameInterval();
+        //Before API 24 a runnable posted from a background thread while detached can be dropped
+        if (mSubmitScheduled.get()) {
+            ViewCompat.postOnAnimation(this, mSubmitRunnable);
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        cancelAngleAnimation();
+        drawFinalAngle();
+        flushProgressChanged();
+        releaseStaticLayer();
+    }
 
     @Override
     protected void drawableStateChanged() {
         super.drawableStateChanged();
-        if (mThumb != null && mThumb.isStateful()) {
-            int[] state = getDrawableState();
-            mThumb.setState(state);
+        //Only the thumb depends on the drawable state, there is nothing to redraw unless its look changed
+        if (mThumb != null && mThumb.isStateful() && mThumb.setState(getDrawableState())) {
+            invalidateThumb();
         }
-        invalidate();
     }
 
 
     @Override
     public boolean onTouchEvent(MotionEvent event) {
+        if (mTouchTraceRecorder != null) {
+            mTouchTraceRecorder.record(event, mLayoutWidth, mLayoutHeight, mTickOffset, mTickLength, mTouchInside, DENSITY);
+        }
+        if (mMetrics == null) {
+            return handleTouchEvent(event);
+        }
+        long start = System.nanoTime();
+        boolean handled = handleTouchEvent(event);
+        mMetrics.recordTiming(ProtractorMetrics.Timing.TOUCH, System.nanoTime() - start);
+        return handled;
+    }
+
+    private boolean handleTouchEvent(MotionEvent event) {
         if (mEnabled) {
             this.getParent().requestDisallowInterceptTouchEvent(true);
 
@@ -364,6 +513,8 @@ public class ProtractorView extends View {
                     if (ignoreTouch(event.getX(), event.getY())) {
                         return false;
                     }
+                    cancelAngleAnimation();
+                    resetTouchTracking();
                     onStartTrackingTouch();
                     updateOnTouch(event);
                     break;
@@ -371,11 +522,13 @@ public class ProtractorView extends View {
                     updateOnTouch(event);
                     break;
                 case MotionEvent.ACTION_UP:
+                    drawFinalAngle();
                     onStopTrackingTouch();
                     setPressed(false);
                     this.getParent().requestDisallowInterceptTouchEvent(false);
                     break;
                 case MotionEvent.ACTION_CANCEL:
+                    drawFinalAngle();
                     onStopTrackingTouch();
                     setPressed(false);
                     this.getParent().requestDisallowInterceptTouchEvent(false);
@@ -387,52 +540,99 @@ public class ProtractorView extends View {
     }
 
     private void onStartTrackingTouch() {
+        flushProgressChanged();
         if (mOnProtractorViewChangeListener != null) {
             mOnProtractorViewChangeListener.onStartTrackingTouch(this);
+            if (mMetrics != null) {
+                mMetrics.increment(ProtractorMetrics.Counter.TRACKING);
+            }
         }
     }
 
     private void onStopTrackingTouch() {
+        flushProgressChanged();
+        postToAngleObservers(true, true);
         if (mOnProtractorViewChangeListener != null) {
             mOnProtractorViewChangeListener.onStopTrackingTouch(this);
+            if (mMetrics != null) {
+                mMetrics.increment(ProtractorMetrics.Counter.TRACKING);
+            }
         }
     }
 
 
     private boolean ignoreTouch(float xPos, float yPos) {
-        boolean ignore = false;
-        float x = xPos - mTranslateX;
-        float y = yPos - mTranslateY;
-
-        float touchRadius = (float) Math.sqrt(((x * x) + (y * y)));
-        if (touchRadius < mTouchIgnoreRadius || touchRadius > (mArcRadius + mTickLength + mTickOffset)) {
-            ignore = true;
-        }
-        return ignore;
+        return mArcLayout.isOutsideTouchRing(xPos, yPos, mTickOffset, mTickLength);
     }
 
+    /**
+     * Folds every sample of the event, the batched historical ones first, into a single angle update.
+     * Samples outside the touchable ring are skipped, so a fast flick ending off the arc still lands
+     * on the last sample that was on it.
+     */
     private void updateOnTouch(MotionEvent event) {
-        boolean ignoreTouch = ignoreTouch(event.getX(), event.getY());
-        if (ignoreTouch) {
+        int historySize = event.getHistorySize();
+        boolean touched = false;
+        for (int h = 0; h <= historySize; h++) {
+            boolean current = h == historySize;
+            float x = current ? event.getX() : event.getHistoricalX(h);
+            float y = current ? event.getY() : event.getHistoricalY(h);
+            if (ignoreTouch(x, y)) {
+                continue;
+            }
+            long time = current ? event.getEventTime() : event.getHistoricalEventTime(h);
+            trackTouchSample(getTouchDegrees(x, y), time);
+            touched = true;
+        }
+        if (!touched) {
             return;
         }
         setPressed(true);
-        mTouchAngle = getTouchDegrees(event.getX(), event.getY());
+        mTouchEventTime = event.getEventTime();
+        if (mPredictTouch) {
+            //The frame showing this update is displayed at the next vsync at the earliest
+            mPredictedTouchAngle = mTouchPredictor.predict(SystemClock.uptimeMillis() + mFrameIntervalMillis);
+        }
         onProgressRefresh((int) mTouchAngle, true);
     }
 
+    /**
+     * Records a touch sample and updates the velocity estimate, smoothed over consecutive samples.
+     */
+    private void trackTouchSample(double angle, long time) {
+        if (mTouchTime >= 0 && time > mTouchTime) {
+            double velocity = (angle - mTouchAngle) * 1000 / (time - mTouchTime);
+            mTouchVelocity = (mTouchVelocity + velocity) / 2;
+        }
+        mTouchAngle = angle;
+        mTouchTime = time;
+        mTouchPredictor.add(time, angle);
+    }
+
+    private void resetTouchTracking() {
+        mTouchTime = -1;
+        mTouchVelocity = 0;
+        mTouchPredictor.reset();
+    }
+
+    /**
+     * Draws the committed angle right away once an interaction ends: the thumb and the progress arc come back
+     * from a prediction, and a move held back by the frame rate cap is not left waiting.
+     */
+    private void drawFinalAngle() {
+        cancelPendingDrawAngle();
+        moveDrawAngle(mAngle);
+    }
+
+    private void updateFrameInterval() {
+        WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+        float refreshRate = (windowManager == null) ? 0 : windowManager.getDefaultDisplay().getRefreshRate();
+        mFrameIntervalMillis = (refreshRate > 1) ? Math.round(1000 / refreshRate) : DEFAULT_FRAME_INTERVAL_MILLIS;
+    }
+
 
     private double getTouchDegrees(float xPos, float yPos) {
-        float x = xPos - mTranslateX;
-        float y = yPos - mTranslateY;
-        x = -x;
-        // convert to arc Angle
-        double angle = Math.toDegrees(Math.atan2(y, x) + (Math.PI));
-        if (angle > 270)
-            angle = 0;
-        else if (angle > 180)
-            angle = 180;
-        return angle;
+        return mArcLayout.touchDegreesAt(xPos, yPos);
     }
 
     private void onProgressRefresh(int angle, boolean fromUser) {
@@ -440,20 +640,246 @@ public class ProtractorView extends View {
     }
 
     private void updateAngle(int angle, boolean fromUser) {
+        updateAngle(angle, fromUser, true);
+    }
+
+    /**
+     * @param invalidate false when the caller invalidates the whole view anyway
+     */
+    private void updateAngle(int angle, boolean fromUser, boolean invalidate) {
+        TraceCompat.beginSection("ProtractorView.updateAngle");
         mAngle = (angle > MAX) ? MAX : (angle < 0) ? 0 : angle;
+        //Only the drawing runs ahead of the finger, listeners always get the committed angle
+        int drawAngle = (mPredictTouch && fromUser) ? (int) mPredictedTouchAngle : mAngle;
+        if (invalidate) {
+            requestDrawAngle(drawAngle);
+        } else {
+            cancelPendingDrawAngle();
+            mDrawAngle = drawAngle;
+            updateThumbPosition();
+        }
+        dispatchProgressChanged(fromUser);
+        if (mAngle != mLastObservedAngle) {
+            postToAngleObservers(fromUser, false);
+        }
+        TraceCompat.endSection();
+    }
 
-        if (mOnProtractorViewChangeListener != null) {
-            mOnProtractorViewChangeListener.onProgressChanged(this, mAngle, fromUser);
+    /**
+     * Moves the drawn angle now, or in the next frame slot when a frame rate cap is set and the last move
+     * is too recent. Moves requested meanwhile only update the pending angle.
+     */
+    private void requestDrawAngle(int drawAngle) {
+        if (mMinFrameIntervalMillis == 0) {
+            moveDrawAngle(drawAngle);
+            return;
+        }
+        mPendingDrawAngle = drawAngle;
+        if (mDrawAnglePending || drawAngle == mDrawAngle) {
+            return;
         }
+        long now = SystemClock.uptimeMillis();
+        long delay = mLastDrawAngleTime + mMinFrameIntervalMillis - now;
+        if (delay <= 0) {
+            mLastDrawAngleTime = now;
+            moveDrawAngle(drawAngle);
+        } else {
+            mDrawAnglePending = true;
+            postDelayed(mDrawAngleRunnable, delay);
+        }
+    }
+
+    private void cancelPendingDrawAngle() {
+        if (mDrawAnglePending) {
+            mDrawAnglePending = false;
+            removeCallbacks(mDrawAngleRunnable);
+        }
+    }
+
+    /**
+     * Moves the thumb and the end of the progress arc to the given angle and invalidates what changed.
+     * Nothing is invalidated when the angle is already drawn.
+     */
+    private void moveDrawAngle(int drawAngle) {
+        if (drawAngle == mDrawAngle) {
+            return;
+        }
+        if (mMetrics != null) {
+            mMetrics.increment(ProtractorMetrics.Counter.INVALIDATE);
+        }
+        int oldAngle = mDrawAngle;
+        if (mThumbLayer != null) {
+            //The thumb and the progress arc have their own views, the body only changes with the highlighted marks
+            mDrawAngle = drawAngle;
+            updateThumbPosition();
+            if (mPainter.highlightChanged(oldAngle, drawAngle)) {
+                mDirtyRect.setEmpty();
+                invalidateSector(oldAngle, drawAngle);
+            }
+            return;
+        }
+        //The thumb's old bounds have to be repainted as well
+        mDirtyRect.setEmpty();
+        unionThumbBounds(mDirtyRect);
+        mDrawAngle = drawAngle;
         updateThumbPosition();
-        invalidate();
+        invalidateSector(oldAngle, mDrawAngle);
+    }
+
+    /**
+     * Notifies the listener of the current angle according to the dispatch mode.
+     */
+    private void dispatchProgressChanged(boolean fromUser) {
+        if (mOnProtractorViewChangeListener == null) {
+            return;
+        }
+        switch (mDispatchMode) {
+            case IMMEDIATE:
+                notifyProgressChanged(fromUser);
+                break;
+            case DISTINCT:
+                if (mAngle != mLastDispatchedAngle) {
+                    notifyProgressChanged(fromUser);
+                }
+                break;
+            case PER_FRAME:
+                mPendingFromUser = fromUser;
+                if (!mDispatchScheduled) {
+                    mDispatchScheduled = true;
+                    ViewCompat.postOnAnimation(this, mDispatchRunnable);
+                }
+                break;
+        }
+    }
+
+    private void postToAngleObservers(boolean fromUser, boolean isFinal) {
+        ConflatingAngleObserver[] observers = mAngleObservers;
+        if (observers.length == 0) {
+            return;
+        }
+        mLastObservedAngle = mAngle;
+        for (ConflatingAngleObserver observer : observers) {
+            observer.post(mAngle, fromUser, isFinal);
+        }
+    }
+
+    /**
+     * Delivers a progress change still waiting for the next frame, if any.
+     * Called before the tracking callbacks so they keep their order relative to onProgressChanged.
+     */
+    private void flushProgressChanged() {
+        if (!mDispatchScheduled) {
+            return;
+        }
+        mDispatchScheduled = false;
+        removeCallbacks(mDispatchRunnable);
+        if (mOnProtractorViewChangeListener != null && mAngle != mLastDispatchedAngle) {
+            notifyProgressChanged(mPendingFromUser);
+        }
+    }
+
+    private void notifyProgressChanged(boolean fromUser) {
+        mLastDispatchedAngle = mAngle;
+        mOnProtractorViewChangeListener.onProgressChanged(this, mAngle, fromUser);
+        if (mMetrics != null) {
+            mMetrics.increment(ProtractorMetrics.Counter.PROGRESS_CHANGED);
+            if (fromUser) {
+                long latencyMillis = SystemClock.uptimeMillis() - mTouchEventTime;
+                mMetrics.recordTiming(ProtractorMetrics.Timing.TOUCH_TO_PROGRESS, latencyMillis * 1000000L);
+            }
+        }
+    }
+
+    /**
+     * Invalidates the part of the view affected by a change of the angle between {@code fromAngle} and
+     * {@code toAngle}: the annular sector covering the arc, ticks and labels between both angles and
+     * the current thumb. Whatever mDirtyRect already contains is repainted too.
+     * Falls back to a full repaint when the sector gets large.
+     */
+    private void invalidateSector(int fromAngle, int toAngle) {
+        int start = Math.min(fromAngle, toAngle);
+        int end = Math.max(fromAngle, toAngle);
+        if (end - start > MAX_DIRTY_SWEEP) {
+            invalidate();
+            return;
+        }
+        float centerX = mArcRect.centerX();
+        float centerY = mArcRect.centerY();
+        float padding = Math.max(mLabelTable.maxWidth / 2, mStyle.angleTextSize) + Math.max(mStyle.arcWidth, mStyle.arcProgressWidth);
+        float innerRadius = mArcLayout.arcRadius;
+        float outerRadius = mArcLayout.arcRadius + mTickOffset + mTickLength;
+
+        float startCos = (float) FastTrig.cos(start);
+        float startSin = (float) FastTrig.sin(start);
+        float endCos = (float) FastTrig.cos(end);
+        float endSin = (float) FastTrig.sin(end);
+
+        //Bounding box of the sector: both end rays plus the top of the arc if the sector crosses it
+        float left = centerX + Math.min(Math.min(innerRadius * startCos, outerRadius * startCos),
+                Math.min(innerRadius * endCos, outerRadius * endCos));
+        float right = centerX + Math.max(Math.max(innerRadius * startCos, outerRadius * startCos),
+                Math.max(innerRadius * endCos, outerRadius * endCos));
+        float top = centerY - Math.max(outerRadius * startSin, outerRadius * endSin);
+        float bottom = centerY - Math.min(innerRadius * startSin, innerRadius * endSin);
+        if (start <= 90 && end >= 90) {
+            top = centerY - outerRadius;
+        }
+        mDirtyRect.union((int) (left - padding), (int) (top - padding),
+                (int) Math.ceil(right + padding), (int) Math.ceil(bottom + padding));
+        if (mThumbLayer == null) {
+            unionThumbBounds(mDirtyRect);
+        }
+        invalidate(mDirtyRect);
     }
 
+    /**
+     * Invalidates the area covered by the thumb at its current position.
+     */
+    private void invalidateThumb() {
+        if (mThumb == null) {
+            //Called from the super constructor before init, or nothing was drawn yet
+            invalidate();
+            return;
+        }
+        if (mThumbLayer != null) {
+            mThumbLayer.invalidateThumb();
+            return;
+        }
+        mDirtyRect.setEmpty();
+        unionThumbBounds(mDirtyRect);
+        invalidate(mDirtyRect);
+    }
+
+    /**
+     * Adds the thumb bounds, in view coordinates, to the given rectangle.
+     * The thumb is drawn mirrored around the arc center, see onDraw.
+     */
+    private void unionThumbBounds(Rect rect) {
+        if (mThumb == null) {
+            //Not drawn yet
+            return;
+        }
+        Rect bounds = mThumb.getBounds();
+        int thumbCenterX = (int) mArcRect.centerX() + mThumbXPos;
+        int thumbCenterY = mArcLayout.centerY - mThumbYPos;
+        rect.union(thumbCenterX - bounds.right - 1, thumbCenterY + bounds.top - 1,
+                thumbCenterX - bounds.left + 1, thumbCenterY + bounds.bottom + 1);
+    }
+
+
+    private void rebuildGeometry() {
+        mPainter.rebuild(mTickOffset, mTickLength, mTickIntervals, mTicksBetweenLabel.ordinal(), MAX, DENSITY, mStyle);
+        invalidateStaticLayer();
+    }
 
     private void updateThumbPosition() {
-        int thumbAngle = mAngle; //(int) (mStartAngle + mProgressSweep + mRotation + 90);
-        mThumbXPos = (int) (mArcRadius * Math.cos(Math.toRadians(thumbAngle)));
-        mThumbYPos = (int) (mArcRadius * Math.sin(Math.toRadians(thumbAngle)));
+        int thumbAngle = mDrawAngle; //(int) (mStartAngle + mProgressSweep + mRotation + 90);
+        mThumbXPos = mArcLayout.thumbX(thumbAngle);
+        mThumbYPos = mArcLayout.thumbY(thumbAngle);
+        if (mThumbLayer != null) {
+            mThumbLayer.moveThumb(mThumbXPos, mThumbYPos);
+            mThumbLayer.setAngle(mDrawAngle);
+        }
     }
 
 
@@ -461,36 +887,255 @@ public class ProtractorView extends View {
     // Setters and Getters
     //*****************************************************
 
+    public ProtractorMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Starts recording draw and touch timings and callback counts into the given metrics, null stops recording.
+     * A single ProtractorMetrics can be shared by several views to aggregate them.
+     */
+    public void setMetrics(ProtractorMetrics metrics) {
+        this.mMetrics = metrics;
+    }
+
+    public int getMaxFrameRate() {
+        return mMaxFrameRate;
+    }
+
+    /**
+     * Caps how often angle changes are redrawn, e.g. to 30 in battery saver mode or for background dashboards.
+     * Changes coming faster are folded, only the newest angle of a frame slot is drawn. The angle reported to
+     * listeners is never delayed, and the final angle is drawn right away when a touch or an animation ends.
+     *
+     * @param framesPerSecond highest number of angle redraws per second, 0 for no cap
+     */
+    public void setMaxFrameRate(int framesPerSecond) {
+        mMaxFrameRate = Math.max(0, framesPerSecond);
+        mMinFrameIntervalMillis = (mMaxFrameRate == 0) ? 0 : Math.round(1000f / mMaxFrameRate);
+        if (mMinFrameIntervalMillis == 0 && mDrawAnglePending) {
+            cancelPendingDrawAngle();
+            moveDrawAngle(mPendingDrawAngle);
+        }
+    }
+
+    public TouchTraceRecorder getTouchTraceRecorder() {
+        return mTouchTraceRecorder;
+    }
+
+    /**
+     * Starts recording every event passed to onTouchEvent into the given recorder, null stops recording.
+     */
+    public void setTouchTraceRecorder(TouchTraceRecorder recorder) {
+        mTouchTraceRecorder = recorder;
+    }
+
     public boolean getTouchInside() {
         return mTouchInside;
     }
 
     public void setTouchInside(boolean isEnabled) {
+        applyTouchInside(isEnabled);
+    }
+
+    private void applyTouchInside(boolean touchInside) {
+        mTouchInside = touchInside;
+        updateTouchIgnoreRadius();
+    }
+
+    private void updateTouchIgnoreRadius() {
+        if (mThumb == null) {
+            //Done by the first measure pass
+            return;
+        }
         int thumbHalfheight = (int) mThumb.getIntrinsicHeight() / 2;
         int thumbHalfWidth = (int) mThumb.getIntrinsicWidth() / 2;
-        mTouchInside = isEnabled;
-        if (mTouchInside) {
-            mTouchIgnoreRadius = (float) (mArcRadius / 1.5);
-        } else {
-            mTouchIgnoreRadius = mArcRadius - Math.min(thumbHalfWidth, thumbHalfheight);
-        }
+        mArcLayout.updateTouchIgnoreRadius(mTouchInside, thumbHalfWidth, thumbHalfheight);
     }
 
     public void setOnProtractorViewChangeListener(OnProtractorViewChangeListener l) {
+        setOnProtractorViewChangeListener(l, DispatchMode.IMMEDIATE);
+    }
+
+    /**
+     * Sets the listener together with the way onProgressChanged is dispatched to it.
+     *
+     * @param l    the listener, may be null
+     * @param mode see {@link DispatchMode}
+     */
+    public void setOnProtractorViewChangeListener(OnProtractorViewChangeListener l, DispatchMode mode) {
+        flushProgressChanged();
         mOnProtractorViewChangeListener = l;
+        mDispatchMode = mode;
+        mLastDispatchedAngle = Integer.MIN_VALUE;
+    }
+
+    /**
+     * Registers an observer which receives angle changes on the given executor, keeping heavy work off the UI thread.
+     * Deliveries to one observer never overlap. While it is busy only the newest angle is kept, so a slow observer
+     * skips intermediate angles instead of queueing them. When the user lifts the finger the angle is delivered again
+     * with isFinal set, unless a newer angle replaces it first.
+     * Observers are added and removed on the UI thread, dispatching to them does not copy or lock anything.
+     *
+     * @param observer the observer, registering it twice has no effect
+     * @param executor where the observer is called, typically a single background thread or a pool
+     */
+    public void addAngleObserver(OnAngleChangeObserver observer, Executor executor) {
+        for (ConflatingAngleObserver registered : mAngleObservers) {
+            if (registered.observer == observer) {
+                return;
+            }
+        }
+        ConflatingAngleObserver[] observers = Arrays.copyOf(mAngleObservers, mAngleObservers.length + 1);
+        observers[observers.length - 1] = new ConflatingAngleObserver(observer, executor);
+        mAngleObservers = observers;
+    }
+
+    /**
+     * Unregisters an observer, an angle not delivered yet is dropped.
+     */
+    public void removeAngleObserver(OnAngleChangeObserver observer) {
+        ConflatingAngleObserver[] observers = mAngleObservers;
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i].observer == observer) {
+                observers[i].remove();
+                ConflatingAngleObserver[] remaining = new ConflatingAngleObserver[observers.length - 1];
+                System.arraycopy(observers, 0, remaining, 0, i);
+                System.arraycopy(observers, i + 1, remaining, i, remaining.length - i);
+                mAngleObservers = (remaining.length == 0) ? NO_OBSERVERS : remaining;
+                return;
+            }
+        }
+    }
+
+    public DispatchMode getDispatchMode() {
+        return mDispatchMode;
     }
 
     public OnProtractorViewChangeListener getOnProtractorViewChangeListener() {
         return mOnProtractorViewChangeListener;
     }
 
+    /**
+     * @return estimated angular velocity of the current drag in degrees per second, positive towards 180
+     */
+    public double getTouchVelocity() {
+        return mTouchVelocity;
+    }
+
     public int getAngle() {
         return mAngle;
     }
 
+    public boolean isTouchPredictionEnabled() {
+        return mPredictTouch;
+    }
+
+    /**
+     * When enabled the thumb and the progress arc are drawn, during a drag, where the finger is expected to be
+     * when the frame reaches the screen, extrapolated from the recent touch samples.
+     * The angle returned by {@link #getAngle()} and reported to the listener is always the touched one,
+     * the drawing snaps back to it when the finger is lifted.
+     *
+     * @param enabled true to draw ahead of the finger
+     */
+    public void setTouchPredictionEnabled(boolean enabled) {
+        this.mPredictTouch = enabled;
+        if (!enabled) {
+            drawFinalAngle();
+        }
+    }
+
     public void setAngle(int angle) {
-        this.mAngle = angle;
-        onProgressRefresh(mAngle, false);
+        cancelAngleAnimation();
+        onProgressRefresh(angle, false);
+    }
+
+    /**
+     * Animates the angle from its current value to {@code angle} with a decelerating curve.
+     *
+     * @see #animateAngleTo(int, long, Interpolator)
+     */
+    public void animateAngleTo(int angle, long durationMs) {
+        animateAngleTo(angle, durationMs, DEFAULT_INTERPOLATOR);
+    }
+
+    /**
+     * Animates the angle from its current value to {@code angle}, one step per animation frame.
+     * Listeners are notified with fromUser set to false whenever the integer angle changes.
+     * Calling it again while running retargets the animation from the angle currently shown, keeping its speed:
+     * the difference with the speed the new curve starts with fades out over the new duration.
+     * The animation is cancelled by {@link #setAngle(int)}, {@link #cancelAngleAnimation()} and by a touch on the arc.
+     *
+     * @param angle        target angle, clamped to 0 - 180
+     * @param durationMs   duration of the animation in milliseconds
+     * @param interpolator timing curve, null for a linear one
+     */
+    public void animateAngleTo(int angle, long durationMs, Interpolator interpolator) {
+        boolean running = mAngleAnimation.isRunning();
+        mAngleAnimation.start(mAngle, (angle > MAX) ? MAX : (angle < 0) ? 0 : angle,
+                AnimationUtils.currentAnimationTimeMillis(), durationMs, interpolator);
+        if (!running) {
+            ViewCompat.postOnAnimation(this, mAnimationRunnable);
+        }
+    }
+
+    /**
+     * Thread safe alternative to {@link #setAngle(int)} for high rate producers such as sensors.
+     * Only the latest submitted angle is kept, it is applied on the UI thread at the next animation frame.
+     * However fast the producer is, at most one update per frame is scheduled.
+     * The listener is notified, with fromUser set to false, only if the angle actually changes.
+     *
+     * @param angle the new angle, clamped to 0 - 180
+     */
+    public void submitAngle(int angle) {
+        //Clamped before storing, Integer.MIN_VALUE would otherwise read as nothing submitted
+        mSubmittedAngle.set((angle > MAX) ? MAX : (angle < 0) ? 0 : angle);
+        if (mSubmitScheduled.compareAndSet(false, true)) {
+            ViewCompat.postOnAnimation(this, mSubmitRunnable);
+        }
+    }
+
+    private void applySubmittedAngle() {
+        //Cleared before reading, a value submitted meanwhile schedules another frame
+        mSubmitScheduled.set(false);
+        int angle = mSubmittedAngle.getAndSet(NO_SUBMITTED_ANGLE);
+        if (angle == NO_SUBMITTED_ANGLE) {
+            return;
+        }
+        if (angle != mAngle) {
+            cancelAngleAnimation();
+            updateAngle(angle, false);
+        }
+    }
+
+    public void cancelAngleAnimation() {
+        if (mAngleAnimation.isRunning()) {
+            mAngleAnimation.cancel();
+            removeCallbacks(mAnimationRunnable);
+        }
+    }
+
+    public boolean isAnimatingAngle() {
+        return mAngleAnimation.isRunning();
+    }
+
+    private void onAnimationFrame() {
+        if (!mAngleAnimation.isRunning()) {
+            return;
+        }
+        boolean running = mAngleAnimation.step(AnimationUtils.currentAnimationTimeMillis());
+        if (running) {
+            ViewCompat.postOnAnimation(this, mAnimationRunnable);
+        }
+        int angle = Math.round(mAngleAnimation.getAngle());
+        if (angle != mAngle) {
+            updateAngle(angle, false);
+        }
+        if (!running) {
+            //The last frame of the animation is never held back by the frame rate cap
+            drawFinalAngle();
+        }
     }
 
     public boolean isEnabled() {
@@ -498,80 +1143,120 @@ public class ProtractorView extends View {
     }
 
     public void setEnabled(boolean enabled) {
+        if (applyEnabled(enabled)) {
+            invalidateThumb();
+        }
+    }
+
+    private boolean applyEnabled(boolean enabled) {
+        if (enabled == mEnabled) {
+            return false;
+        }
         this.mEnabled = enabled;
-        invalidate();
+        if (mThumbLayer != null) {
+            mThumbLayer.setThumbVisible(enabled);
+        }
+        return true;
+    }
+
+    ProtractorStyle getStyle() {
+        return mStyle;
+    }
+
+    //Angle the thumb and the progress arc are drawn at, see setMaxFrameRate and setTouchPredictionEnabled
+    int getDrawAngle() {
+        return mDrawAngle;
     }
 
     public int getProgressColor() {
-        return mArcProgressPaint.getColor();
+        return mStyle.arcProgressColor;
     }
 
     public void setProgressColor(@ColorInt int color) {
-        mArcProgressPaint.setColor(color);
-        invalidate();
+        if (setStyle(mStyle.buildUpon().arcProgressColor(color).build())) {
+            mDirtyRect.setEmpty();
+            invalidateSector(0, mDrawAngle);
+        }
     }
 
     public int getArcColor() {
-        return mArcPaint.getColor();
+        return mStyle.arcColor;
     }
 
     public void setArcColor(@ColorInt int color) {
-        mArcPaint.setColor(color);
-        invalidate();
+        if (setStyle(mStyle.buildUpon().arcColor(color).build())) {
+            invalidate();
+        }
     }
 
     public int getArcProgressWidth() {
-        return mArcProgressWidth;
+        return mStyle.arcProgressWidth;
     }
 
     public void setArcProgressWidth(int arcProgressWidth) {
-        this.mArcProgressWidth = arcProgressWidth;
-        mArcProgressPaint.setStrokeWidth(arcProgressWidth);
-        invalidate();
+        if (setStyle(mStyle.buildUpon().arcProgressWidth(arcProgressWidth).build())) {
+            invalidate();
+        }
     }
 
     public int getArcWidth() {
-        return mArcWidth;
+        return mStyle.arcWidth;
     }
 
     public void setArcWidth(int arcWidth) {
-        this.mArcWidth = arcWidth;
-        mArcPaint.setStrokeWidth(arcWidth);
-        invalidate();
+        if (setStyle(mStyle.buildUpon().arcWidth(arcWidth).build())) {
+            invalidate();
+        }
     }
 
     public boolean isRoundedEdges() {
-        return mRoundedEdges;
+        return mStyle.roundedEdges;
     }
 
     public void setRoundedEdges(boolean roundedEdges) {
-        this.mRoundedEdges = roundedEdges;
-        if (roundedEdges) {
-            mArcPaint.setStrokeCap(Paint.Cap.ROUND);
-            mArcProgressPaint.setStrokeCap(Paint.Cap.ROUND);
-        } else {
-            mArcPaint.setStrokeCap(Paint.Cap.SQUARE);
-            mArcPaint.setStrokeCap(Paint.Cap.SQUARE);
+        if (setStyle(mStyle.buildUpon().roundedEdges(roundedEdges).build())) {
+            invalidate();
         }
-        invalidate();
     }
 
     public Drawable getThumb() {
-        return mThumb;
+        return ensureThumb();
     }
 
+    /**
+     * Sets the thumb drawable of this view. A drawable without a constant state is kept as is,
+     * a {@link ProtractorRenderer} copying this view then draws no thumb.
+     */
     public void setThumb(Drawable thumb) {
-        this.mThumb = thumb;
+        applyThumb(thumb);
+        setStyle(mStyle.buildUpon().thumbState(thumb.getConstantState()).build());
         invalidate();
     }
 
+    /**
+     * Takes the thumb in use, leaving its constant state in the style to the caller.
+     */
+    private void applyThumb(Drawable thumb) {
+        this.mThumb = thumb;
+        setThumbBounds(thumb);
+        if (thumb.isStateful()) {
+            thumb.setState(getDrawableState());
+        }
+        updateTouchIgnoreRadius();
+        if (mThumbLayer != null) {
+            mThumbLayer.setThumb(thumb);
+            updateThumbPosition();
+        }
+    }
+
     public int getAngleTextSize() {
-        return mAngleTextSize;
+        return mStyle.angleTextSize;
     }
 
     public void setAngleTextSize(int angleTextSize) {
-        this.mAngleTextSize = angleTextSize;
-        invalidate();
+        if (setStyle(mStyle.buildUpon().angleTextSize(angleTextSize).build())) {
+            invalidate();
+        }
     }
 
     public int getTickOffset() {
@@ -579,7 +1264,17 @@ public class ProtractorView extends View {
     }
 
     public void setTickOffset(int tickOffset) {
+        if (applyTickOffset(tickOffset)) {
+            invalidateLayout();
+        }
+    }
+
+    private boolean applyTickOffset(int tickOffset) {
+        if (tickOffset == mTickOffset) {
+            return false;
+        }
         this.mTickOffset = tickOffset;
+        return true;
     }
 
     public int getTickLength() {
@@ -587,7 +1282,17 @@ public class ProtractorView extends View {
     }
 
     public void setTickLength(int tickLength) {
+        if (applyTickLength(tickLength)) {
+            invalidateLayout();
+        }
+    }
+
+    private boolean applyTickLength(int tickLength) {
+        if (tickLength == mTickLength) {
+            return false;
+        }
         this.mTickLength = tickLength;
+        return true;
     }
 
     public TicksBetweenLabel getTicksBetweenLabel() {
@@ -595,8 +1300,17 @@ public class ProtractorView extends View {
     }
 
     public void setTicksBetweenLabel(TicksBetweenLabel ticksBetweenLabel) {
-        this.mTicksBetweenLabel = mTicksBetweenLabel;
-        invalidate();
+        if (applyTicksBetweenLabel(ticksBetweenLabel)) {
+            invalidateTickGeometry();
+        }
+    }
+
+    private boolean applyTicksBetweenLabel(TicksBetweenLabel ticksBetweenLabel) {
+        if (ticksBetweenLabel == mTicksBetweenLabel) {
+            return false;
+        }
+        this.mTicksBetweenLabel = ticksBetweenLabel;
+        return true;
     }
 
     public int getTickIntervals() {
@@ -604,7 +1318,269 @@ public class ProtractorView extends View {
     }
 
     public void setTickIntervals(int tickIntervals) {
+        if (applyTickIntervals(tickIntervals)) {
+            invalidateTickGeometry();
+        }
+    }
+
+    private boolean applyTickIntervals(int tickIntervals) {
+        if (tickIntervals == mTickIntervals) {
+            return false;
+        }
         this.mTickIntervals = tickIntervals;
+        return true;
+    }
+
+    public boolean isThumbLayerEnabled() {
+        return mThumbLayer != null;
+    }
+
+    /**
+     * When enabled the thumb and the progress arc are drawn by two child views, each with its own display list.
+     * Dragging only moves the thumb view and redraws the progress arc, the arc, ticks and labels of the view are
+     * only redrawn when a tick or label gets highlighted or loses its highlight.
+     * Requires API 16, ignored on older versions where moving a child view redraws its parent anyway.
+     *
+     * @param enabled true to draw the thumb in its own layer
+     */
+    public void setThumbLayerEnabled(boolean enabled) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN || enabled == (mThumbLayer != null)) {
+            return;
+        }
+        if (enabled) {
+            mThumbLayer = new ThumbLayer(this, mPainter, ensureThumb(), mStyle, mDrawAngle);
+            mThumbLayer.setThumbVisible(mEnabled);
+            mThumbLayer.layout(getWidth(), getHeight());
+            updateThumbPosition();
+        } else {
+            mThumbLayer.remove();
+            mThumbLayer = null;
+        }
         invalidate();
     }
+
+    public boolean isStaticLayerCacheEnabled() {
+        return mCacheStaticLayer;
+    }
+
+    /**
+     * When enabled the arc, ticks and labels are rendered once into a bitmap which is reused by every frame,
+     * only the progress arc, the highlighted ticks and labels and the thumb are drawn on top of it.
+     * Trades one view sized bitmap for cheaper redraws while the angle changes.
+     *
+     * @param enabled true to cache the static part of the protractor
+     */
+    public void setStaticLayerCacheEnabled(boolean enabled) {
+        this.mCacheStaticLayer = enabled;
+        if (!enabled) {
+            releaseStaticLayer();
+        }
+        invalidateStaticLayer();
+        invalidate();
+    }
+
+    /**
+     * Starts a batch of property changes, applied together by {@link Editor#apply()}:
+     * <pre>
+     * protractorView.edit()
+     *         .setArcColor(color)
+     *         .setTickIntervals(5)
+     *         .setAngle(45)
+     *         .apply();
+     * </pre>
+     * The paints and the tick geometry are rebuilt at most once, layout is requested at most once, the view is
+     * invalidated at most once and the listener gets at most one onProgressChanged, whatever the number of changes.
+     * Every view has a single editor, edit() discards the changes of a batch which was not applied.
+     */
+    public Editor edit() {
+        if (mEditor == null) {
+            mEditor = new Editor();
+        }
+        mEditor.reset();
+        return mEditor;
+    }
+
+    /**
+     * Pending property changes of a ProtractorView, see {@link #edit()}.
+     * The setters behave like the view's setters of the same name.
+     */
+    public final class Editor {
+
+        private static final int ANGLE = 1;
+        private static final int THUMB = 1 << 1;
+        private static final int TICK_OFFSET = 1 << 2;
+        private static final int TICK_LENGTH = 1 << 3;
+        private static final int TICK_INTERVALS = 1 << 4;
+        private static final int TICKS_BETWEEN_LABEL = 1 << 5;
+        private static final int ENABLED = 1 << 6;
+        private static final int TOUCH_INSIDE = 1 << 7;
+
+        //Properties set in this batch
+        private int mChanges;
+        //Created when a style property is first set
+        private ProtractorStyle.Builder mStyleBuilder;
+        private int mAngle;
+        private Drawable mThumb;
+        private int mTickOffset;
+        private int mTickLength;
+        private int mTickIntervals;
+        private TicksBetweenLabel mTicksBetweenLabel;
+        private boolean mEnabled;
+        private boolean mTouchInside;
+
+        private Editor() {
+        }
+
+        private void reset() {
+            mChanges = 0;
+            mStyleBuilder = null;
+            mThumb = null;
+        }
+
+        private ProtractorStyle.Builder style() {
+            if (mStyleBuilder == null) {
+                mStyleBuilder = mStyle.buildUpon();
+            }
+            return mStyleBuilder;
+        }
+
+        public Editor setAngle(int angle) {
+            mAngle = angle;
+            mChanges |= ANGLE;
+            return this;
+        }
+
+        public Editor setProgressColor(@ColorInt int color) {
+            style().arcProgressColor(color);
+            return this;
+        }
+
+        public Editor setArcColor(@ColorInt int color) {
+            style().arcColor(color);
+            return this;
+        }
+
+        public Editor setArcProgressWidth(int arcProgressWidth) {
+            style().arcProgressWidth(arcProgressWidth);
+            return this;
+        }
+
+        public Editor setArcWidth(int arcWidth) {
+            style().arcWidth(arcWidth);
+            return this;
+        }
+
+        public Editor setRoundedEdges(boolean roundedEdges) {
+            style().roundedEdges(roundedEdges);
+            return this;
+        }
+
+        public Editor setAngleTextSize(int angleTextSize) {
+            style().angleTextSize(angleTextSize);
+            return this;
+        }
+
+        public Editor setThumb(Drawable thumb) {
+            mThumb = thumb;
+            mChanges |= THUMB;
+            return this;
+        }
+
+        public Editor setTickOffset(int tickOffset) {
+            mTickOffset = tickOffset;
+            mChanges |= TICK_OFFSET;
+            return this;
+        }
+
+        public Editor setTickLength(int tickLength) {
+            mTickLength = tickLength;
+            mChanges |= TICK_LENGTH;
+            return this;
+        }
+
+        public Editor setTickIntervals(int tickIntervals) {
+            mTickIntervals = tickIntervals;
+            mChanges |= TICK_INTERVALS;
+            return this;
+        }
+
+        public Editor setTicksBetweenLabel(TicksBetweenLabel ticksBetweenLabel) {
+            mTicksBetweenLabel = ticksBetweenLabel;
+            mChanges |= TICKS_BETWEEN_LABEL;
+            return this;
+        }
+
+        public Editor setEnabled(boolean enabled) {
+            mEnabled = enabled;
+            mChanges |= ENABLED;
+            return this;
+        }
+
+        public Editor setTouchInside(boolean touchInside) {
+            mTouchInside = touchInside;
+            mChanges |= TOUCH_INSIDE;
+            return this;
+        }
+
+        /**
+         * Applies every change of the batch to the view.
+         */
+        public void apply() {
+            boolean redraw = false;
+            boolean rebuildTicks = false;
+            boolean relayout = false;
+
+            if ((mChanges & THUMB) != 0) {
+                applyThumb(mThumb);
+                style().thumbState(mThumb.getConstantState());
+                redraw = true;
+            }
+            if (mStyleBuilder != null) {
+                int textSize = mStyle.angleTextSize;
+                if (applyStyle(mStyleBuilder.build())) {
+                    //The labels are measured with the text paint
+                    rebuildTicks = mStyle.angleTextSize != textSize;
+                    redraw = true;
+                }
+            }
+            if ((mChanges & TICK_OFFSET) != 0 && applyTickOffset(mTickOffset)) {
+                relayout = true;
+            }
+            if ((mChanges & TICK_LENGTH) != 0 && applyTickLength(mTickLength)) {
+                relayout = true;
+            }
+            if ((mChanges & TICK_INTERVALS) != 0 && applyTickIntervals(mTickIntervals)) {
+                rebuildTicks = true;
+            }
+            if ((mChanges & TICKS_BETWEEN_LABEL) != 0 && applyTicksBetweenLabel(mTicksBetweenLabel)) {
+                rebuildTicks = true;
+            }
+            if ((mChanges & ENABLED) != 0 && applyEnabled(mEnabled)) {
+                redraw = true;
+            }
+            if ((mChanges & TOUCH_INSIDE) != 0) {
+                applyTouchInside(mTouchInside);
+            }
+
+            if (relayout) {
+                //onMeasure rebuilds the ticks as well
+                mLayoutDirty = true;
+                requestLayout();
+                redraw = true;
+            } else if (rebuildTicks) {
+                if (!mLayoutDirty) {
+                    rebuildGeometry();
+                }
+                redraw = true;
+            }
+            if ((mChanges & ANGLE) != 0) {
+                cancelAngleAnimation();
+                updateAngle(mAngle, false, !redraw);
+            }
+            if (redraw) {
+                invalidate();
+            }
+            reset();
+        }
+    }
 }
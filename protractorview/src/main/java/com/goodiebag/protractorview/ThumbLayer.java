@@ -0,0 +1,169 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * Draws the thumb and the progress arc of a {@link ProtractorView} from two child views, each recorded into
+ * its own display list. The thumb view is only as large as the thumb and is moved with its translation alone,
+ * which re-records nothing. The progress view covers the protractor and only draws the progress arc, so an angle
+ * change re-records a single arc and the body of the view is left alone unless a tick or label highlight flips.
+ */
+@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+final class ThumbLayer {
+
+    private final ViewGroup mHost;
+    private final ProtractorPainter mPainter;
+    private final ThumbView mThumbView;
+    private final ProgressView mProgressView;
+    private Drawable mThumb;
+    private ProtractorStyle mStyle;
+    private int mAngle;
+
+    ThumbLayer(ViewGroup host, ProtractorPainter painter, Drawable thumb, ProtractorStyle style, int angle) {
+        mHost = host;
+        mPainter = painter;
+        mThumb = thumb;
+        mStyle = style;
+        mAngle = angle;
+        Context context = host.getContext();
+        mProgressView = new ProgressView(context);
+        mThumbView = new ThumbView(context);
+        //The thumb is drawn over the progress arc
+        host.addView(mProgressView);
+        host.addView(mThumbView);
+    }
+
+    void remove() {
+        mHost.removeView(mThumbView);
+        mHost.removeView(mProgressView);
+    }
+
+    /**
+     * Lays both views out for the host's current size and arc, the thumb view is centered on the arc center.
+     */
+    void layout(int width, int height) {
+        layoutChild(mProgressView, 0, 0, width, height);
+        Rect thumbBounds = mThumb.getBounds();
+        int left = mPainter.arcLayout.centerX + thumbBounds.left;
+        int top = mPainter.arcLayout.centerY + thumbBounds.top;
+        layoutChild(mThumbView, left, top, left + thumbBounds.width(), top + thumbBounds.height());
+    }
+
+    private static void layoutChild(View child, int left, int top, int right, int bottom) {
+        child.measure(View.MeasureSpec.makeMeasureSpec(right - left, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(bottom - top, View.MeasureSpec.EXACTLY));
+        child.layout(left, top, right, bottom);
+    }
+
+    void setThumb(Drawable thumb) {
+        mThumb = thumb;
+        layout(mHost.getWidth(), mHost.getHeight());
+        mThumbView.invalidate();
+    }
+
+    void setStyle(ProtractorStyle style) {
+        if (style != mStyle) {
+            mStyle = style;
+            mProgressView.invalidate();
+        }
+    }
+
+    void setThumbVisible(boolean visible) {
+        mThumbView.setVisibility(visible ? View.VISIBLE : View.INVISIBLE);
+    }
+
+    /**
+     * Moves the thumb to the given offset from the arc center, see {@link ProtractorPainter#drawThumb}.
+     */
+    void moveThumb(int thumbX, int thumbY) {
+        mThumbView.setTranslationX(thumbX);
+        mThumbView.setTranslationY(-thumbY);
+    }
+
+    void setAngle(int angle) {
+        if (angle != mAngle) {
+            mAngle = angle;
+            mProgressView.invalidate();
+        }
+    }
+
+    /**
+     * Redraws the progress arc after the arc itself moved.
+     */
+    void invalidateProgress() {
+        mProgressView.invalidate();
+    }
+
+    void invalidateThumb() {
+        mThumbView.invalidate();
+    }
+
+    private final class ThumbView extends View {
+
+        ThumbView(Context context) {
+            super(context);
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            //Mirrored around its center like ProtractorPainter.drawThumb does around the arc center
+            Rect thumbBounds = mThumb.getBounds();
+            canvas.save();
+            canvas.scale(-1, 1, getWidth() / 2f, 0);
+            canvas.translate(-thumbBounds.left, -thumbBounds.top);
+            mThumb.draw(canvas);
+            canvas.restore();
+        }
+
+        @Override
+        public boolean hasOverlappingRendering() {
+            return false;
+        }
+    }
+
+    private final class ProgressView extends View {
+
+        ProgressView(Context context) {
+            super(context);
+            setImportantForAccessibility(IMPORTANT_FOR_ACCESSIBILITY_NO);
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            mPainter.drawProgressArc(canvas, mAngle, mStyle);
+        }
+
+        @Override
+        public boolean hasOverlappingRendering() {
+            return false;
+        }
+    }
+}
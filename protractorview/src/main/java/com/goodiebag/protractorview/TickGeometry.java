@@ -0,0 +1,160 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+/**
+ * Precomputed tick and label geometry of a {@link ProtractorView}.
+ * The end points of every tick are stored in a flat array in the layout expected by
+ * {@link android.graphics.Canvas#drawLines(float[], int, int, android.graphics.Paint)},
+ * ordered by ascending angle so the highlighted ticks are always a prefix of the array.
+ * Label anchors (the middle of the label slot) are stored the same way.
+ * The geometry only depends on the size of the view and the tick attributes,
+ * hence it is rebuilt from onMeasure and from the tick setters, never from onDraw.
+ * Ticks packed closer than a minimum gap are thinned out there, so onDraw only draws what can be told apart.
+ */
+final class TickGeometry {
+
+    //Number of floats used to describe one tick (startX, startY, endX, endY)
+    static final int FLOATS_PER_TICK = 4;
+
+    //Smallest distance between two ticks, in dp, closer ticks are dropped
+    static final int MIN_TICK_GAP_DP = 4;
+
+    //Tick end points in view coordinates
+    float[] tickPoints = new float[0];
+    //Angle of every tick, in the same order as tickPoints
+    int[] tickAngles = new int[0];
+    int tickCount;
+
+    //Label anchors in view coordinates and the angle written by every label
+    float[] labelX = new float[0];
+    float[] labelY = new float[0];
+    int[] labelAngles = new int[0];
+    int labelCount;
+
+    /**
+     * Recomputes the tick end points and the label anchors.
+     * Walks the angles from 0 to 180 exactly like the drawing loop used to: a label slot is followed by
+     * {@code ticksBetweenLabel} tick slots. Labels sit halfway along the tick length.
+     * When consecutive slots are closer than {@code minTickGap} along the inner end of the ticks, only every
+     * n-th tick after a label is kept, n being the smallest step far enough apart, and ticks too close to
+     * the next label are dropped. Labels always keep their angles.
+     *
+     * @param centerX           x coordinate of the arc center
+     * @param centerY           y coordinate of the arc center
+     * @param arcRadius         radius of the arc
+     * @param tickOffset        distance between the arc and the start of a tick
+     * @param tickLength        length of a tick
+     * @param tickIntervals     angle between two consecutive ticks
+     * @param ticksBetweenLabel number of ticks drawn between two labels
+     * @param maxAngle          last angle of the protractor
+     * @param minTickGap        smallest distance, in pixels, between two ticks or a tick and a label slot
+     */
+    void rebuild(float centerX, float centerY, int arcRadius, int tickOffset, int tickLength,
+                 int tickIntervals, int ticksBetweenLabel, int maxAngle, float minTickGap) {
+        tickCount = 0;
+        labelCount = 0;
+        if (tickIntervals <= 0) {
+            return;
+        }
+        int slots = maxAngle / tickIntervals + 1;
+        if (tickAngles.length < slots) {
+            tickAngles = new int[slots];
+            tickPoints = new float[slots * FLOATS_PER_TICK];
+            labelAngles = new int[slots];
+            labelX = new float[slots];
+            labelY = new float[slots];
+        }
+
+        double startRadius = arcRadius + tickOffset;
+        double endRadius = startRadius + tickLength;
+        double labelRadius = startRadius + tickLength / 2;
+        int step = tickStep(startRadius, tickIntervals, minTickGap);
+        int count = ticksBetweenLabel;
+        for (int angle = 0; angle <= maxAngle; angle += tickIntervals) {
+            if (count == ticksBetweenLabel) {
+                //label slot
+                labelX[labelCount] = (float) (centerX + labelRadius * FastTrig.cos(angle));
+                labelY[labelCount] = (float) (centerY - labelRadius * FastTrig.sin(angle));
+                labelAngles[labelCount] = angle;
+                labelCount++;
+                count = 0;
+                continue;
+            }
+            count++;
+            //count is the distance, in slots, to the previous label
+            if (count % step != 0 || ticksBetweenLabel + 1 - count < step) {
+                continue;
+            }
+            double cos = FastTrig.cos(angle);
+            double sin = FastTrig.sin(angle);
+            int index = tickCount * FLOATS_PER_TICK;
+            tickPoints[index] = (float) (centerX + startRadius * cos);
+            tickPoints[index + 1] = (float) (centerY - startRadius * sin);
+            tickPoints[index + 2] = (float) (centerX + endRadius * cos);
+            tickPoints[index + 3] = (float) (centerY - endRadius * sin);
+            tickAngles[tickCount] = angle;
+            tickCount++;
+        }
+    }
+
+    /**
+     * @return the smallest number of slots between two drawn ticks keeping them at least minTickGap apart
+     */
+    static int tickStep(double radius, int tickIntervals, float minTickGap) {
+        double slotGap = radius * Math.toRadians(tickIntervals);
+        if (slotGap <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(1, (int) Math.ceil(minTickGap / slotGap));
+    }
+
+    /**
+     * @param angle current angle of the protractor
+     * @return number of ticks which are highlighted for the given angle, i.e. whose angle is at most {@code angle}
+     */
+    int progressTickCount(int angle) {
+        return countAtMost(tickAngles, tickCount, angle);
+    }
+
+    /**
+     * @param angle current angle of the protractor
+     * @return number of labels which are highlighted for the given angle, i.e. whose angle is at most {@code angle}
+     */
+    int progressLabelCount(int angle) {
+        return countAtMost(labelAngles, labelCount, angle);
+    }
+
+    //Binary search over the sorted head of the given array
+    static int countAtMost(int[] angles, int size, int angle) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (angles[mid] <= angle) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
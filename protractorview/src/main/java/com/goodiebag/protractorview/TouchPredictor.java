@@ -0,0 +1,120 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+/**
+ * Short history of the touch angle used to draw the thumb where the finger will be when the frame is shown.
+ * The last few (time, angle) samples are kept in a ring buffer, a least squares line through the recent ones
+ * gives the angular velocity which is extrapolated to the requested time.
+ * The horizon is capped so a stalled gesture does not fling the thumb, and the result is clamped to the arc.
+ */
+final class TouchPredictor {
+
+    //Number of samples kept
+    static final int CAPACITY = 8;
+    //Samples older than this, relative to the newest one, are not used for the fit
+    static final long WINDOW_MILLIS = 50;
+    //Largest extrapolation ahead of the newest sample
+    static final long MAX_HORIZON_MILLIS = 32;
+
+    private final long[] mTimes = new long[CAPACITY];
+    private final double[] mAngles = new double[CAPACITY];
+    //Index of the next sample to write and number of valid samples
+    private int mHead;
+    private int mSize;
+    private final int mMaxAngle;
+
+    /**
+     * @param maxAngle predictions are clamped to 0 - maxAngle
+     */
+    TouchPredictor(int maxAngle) {
+        mMaxAngle = maxAngle;
+    }
+
+    void reset() {
+        mHead = 0;
+        mSize = 0;
+    }
+
+    /**
+     * Records a sample. Samples must be added in increasing time order, a sample which is not newer than the
+     * previous one replaces it.
+     */
+    void add(long time, double angle) {
+        if (mSize > 0) {
+            int last = (mHead + CAPACITY - 1) % CAPACITY;
+            if (time <= mTimes[last]) {
+                mAngles[last] = angle;
+                return;
+            }
+        }
+        mTimes[mHead] = time;
+        mAngles[mHead] = angle;
+        mHead = (mHead + 1) % CAPACITY;
+        if (mSize < CAPACITY) {
+            mSize++;
+        }
+    }
+
+    /**
+     * @param time time, in the clock of the samples, for which the angle is predicted
+     * @return the extrapolated angle, or the newest sample when there is not enough history
+     */
+    double predict(long time) {
+        if (mSize == 0) {
+            return 0;
+        }
+        int newest = (mHead + CAPACITY - 1) % CAPACITY;
+        long newestTime = mTimes[newest];
+        double newestAngle = mAngles[newest];
+
+        //Least squares slope over the samples inside the window, times relative to the newest one
+        int n = 0;
+        double sumT = 0;
+        double sumA = 0;
+        double sumTT = 0;
+        double sumTA = 0;
+        for (int i = 0; i < mSize; i++) {
+            int index = (newest + CAPACITY - i) % CAPACITY;
+            long dt = mTimes[index] - newestTime;
+            if (-dt > WINDOW_MILLIS) {
+                break;
+            }
+            double a = mAngles[index];
+            sumT += dt;
+            sumA += a;
+            sumTT += (double) dt * dt;
+            sumTA += dt * a;
+            n++;
+        }
+        double denominator = n * sumTT - sumT * sumT;
+        if (n < 2 || denominator == 0) {
+            return clamp(newestAngle);
+        }
+        double slope = (n * sumTA - sumT * sumA) / denominator;
+        long horizon = Math.max(0, Math.min(MAX_HORIZON_MILLIS, time - newestTime));
+        return clamp(newestAngle + slope * horizon);
+    }
+
+    private double clamp(double angle) {
+        return (angle > mMaxAngle) ? mMaxAngle : (angle < 0) ? 0 : angle;
+    }
+}
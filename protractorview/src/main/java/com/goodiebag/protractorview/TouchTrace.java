@@ -0,0 +1,299 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Touch events sent to a {@link ProtractorView}, recorded by a {@link TouchTraceRecorder} so a gesture can be
+ * replayed off device. Besides the events the trace keeps the view size and tick dimensions the touches
+ * were made against. Lengths are stored in dp, so a trace replays the same on any density.
+ * <p>
+ * The binary format is a header followed by the events, with times and coordinates delta encoded as varints:
+ * <pre>
+ * int    magic 'PTRC'
+ * byte   version
+ * byte   flags, bit 0 is touchInside
+ * varint width, height, tick offset, tick length, in 1/16 dp
+ * varint event count
+ * event  byte action (masked), varint sample count, then per sample, historical ones first:
+ *        varint milliseconds since the previous sample, zigzag varint x and y delta in 1/16 dp
+ * </pre>
+ * A sample usually takes 3 to 5 bytes. Kept free of Android types so traces can be written and read on a plain JVM.
+ */
+public final class TouchTrace {
+
+    static final int MAGIC = 0x50545243;
+    static final int VERSION = 1;
+    //Resolution of stored lengths, per dp
+    static final int UNITS_PER_DP = 16;
+
+    private static final int FLAG_TOUCH_INSIDE = 1;
+
+    //Header, lengths in 1/16 dp
+    final int width;
+    final int height;
+    final int tickOffset;
+    final int tickLength;
+    final boolean touchInside;
+
+    //Samples of event i are sampleEnd[i - 1] (0 for the first event) to sampleEnd[i] - 1, the last one is current
+    final int eventCount;
+    final int[] actions;
+    final int[] sampleEnd;
+
+    //Times in milliseconds since the first sample, coordinates in 1/16 dp
+    final int sampleCount;
+    final long[] times;
+    final int[] x;
+    final int[] y;
+
+    private TouchTrace(Builder builder) {
+        width = builder.mWidth;
+        height = builder.mHeight;
+        tickOffset = builder.mTickOffset;
+        tickLength = builder.mTickLength;
+        touchInside = builder.mTouchInside;
+        eventCount = builder.mEventCount;
+        actions = Arrays.copyOf(builder.mActions, eventCount);
+        sampleEnd = Arrays.copyOf(builder.mSampleEnd, eventCount);
+        sampleCount = builder.mSampleCount;
+        times = new long[sampleCount];
+        for (int i = 0; i < sampleCount; i++) {
+            times[i] = builder.mTimes[i] - builder.mTimes[0];
+        }
+        x = Arrays.copyOf(builder.mX, sampleCount);
+        y = Arrays.copyOf(builder.mY, sampleCount);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * @return duration of the trace in milliseconds
+     */
+    public long getDurationMillis() {
+        return (sampleCount == 0) ? 0 : times[sampleCount - 1];
+    }
+
+    int sampleStart(int event) {
+        return (event == 0) ? 0 : sampleEnd[event - 1];
+    }
+
+    /**
+     * Writes the trace in the binary format, the stream is left open.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(touchInside ? FLAG_TOUCH_INSIDE : 0);
+        writeVarint(data, width);
+        writeVarint(data, height);
+        writeVarint(data, tickOffset);
+        writeVarint(data, tickLength);
+        writeVarint(data, eventCount);
+        long lastTime = 0;
+        int lastX = 0;
+        int lastY = 0;
+        for (int event = 0; event < eventCount; event++) {
+            data.writeByte(actions[event]);
+            writeVarint(data, sampleEnd[event] - sampleStart(event));
+            for (int i = sampleStart(event); i < sampleEnd[event]; i++) {
+                //Samples are in time order, a clock going backwards is flattened
+                writeVarint(data, (int) Math.max(0, times[i] - lastTime));
+                writeVarint(data, zigzag(x[i] - lastX));
+                writeVarint(data, zigzag(y[i] - lastY));
+                lastTime = Math.max(lastTime, times[i]);
+                lastX = x[i];
+                lastY = y[i];
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a trace written by {@link #write(OutputStream)}, the stream is left open.
+     *
+     * @throws IOException if the stream does not hold a trace of a known version, or ends early
+     */
+    public static TouchTrace read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a touch trace");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported touch trace version " + version);
+        }
+        int flags = data.readUnsignedByte();
+        Builder builder = new Builder(readVarint(data), readVarint(data), readVarint(data), readVarint(data),
+                (flags & FLAG_TOUCH_INSIDE) != 0);
+        int events = readVarint(data);
+        long time = 0;
+        int x = 0;
+        int y = 0;
+        for (int event = 0; event < events; event++) {
+            builder.beginEvent(data.readUnsignedByte());
+            int samples = readVarint(data);
+            for (int i = 0; i < samples; i++) {
+                time += readVarint(data);
+                x += unzigzag(readVarint(data));
+                y += unzigzag(readVarint(data));
+                builder.addSampleUnits(time, x, y);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void writeVarint(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static int toUnits(float dp) {
+        return Math.round(dp * UNITS_PER_DP);
+    }
+
+    static float toDp(int units) {
+        return units / (float) UNITS_PER_DP;
+    }
+
+    /**
+     * Collects events into a trace. Coordinates are rounded to the resolution of the format as they are added,
+     * so a trace reads back exactly as it was built.
+     */
+    static final class Builder {
+        private final int mWidth;
+        private final int mHeight;
+        private final int mTickOffset;
+        private final int mTickLength;
+        private final boolean mTouchInside;
+
+        private int mEventCount;
+        private int[] mActions = new int[16];
+        private int[] mSampleEnd = new int[16];
+        private int mSampleCount;
+        private long[] mTimes = new long[64];
+        private int[] mX = new int[64];
+        private int[] mY = new int[64];
+
+        /**
+         * Lengths in dp.
+         */
+        Builder(float width, float height, float tickOffset, float tickLength, boolean touchInside) {
+            this(toUnits(width), toUnits(height), toUnits(tickOffset), toUnits(tickLength), touchInside);
+        }
+
+        private Builder(int width, int height, int tickOffset, int tickLength, boolean touchInside) {
+            mWidth = width;
+            mHeight = height;
+            mTickOffset = tickOffset;
+            mTickLength = tickLength;
+            mTouchInside = touchInside;
+        }
+
+        /**
+         * Starts an event, the samples added next belong to it.
+         *
+         * @param action masked action of the event
+         */
+        Builder beginEvent(int action) {
+            if (mEventCount == mActions.length) {
+                mActions = Arrays.copyOf(mActions, mEventCount * 2);
+                mSampleEnd = Arrays.copyOf(mSampleEnd, mEventCount * 2);
+            }
+            mActions[mEventCount] = action;
+            mSampleEnd[mEventCount] = mSampleCount;
+            mEventCount++;
+            return this;
+        }
+
+        /**
+         * Adds a sample to the current event, historical samples first.
+         *
+         * @param timeMillis uptime of the sample
+         * @param x          x coordinate in dp, relative to the view
+         * @param y          y coordinate in dp, relative to the view
+         */
+        Builder addSample(long timeMillis, float x, float y) {
+            return addSampleUnits(timeMillis, toUnits(x), toUnits(y));
+        }
+
+        private Builder addSampleUnits(long timeMillis, int x, int y) {
+            if (mEventCount == 0) {
+                throw new IllegalStateException("Sample added before any event");
+            }
+            if (mSampleCount == mTimes.length) {
+                mTimes = Arrays.copyOf(mTimes, mSampleCount * 2);
+                mX = Arrays.copyOf(mX, mSampleCount * 2);
+                mY = Arrays.copyOf(mY, mSampleCount * 2);
+            }
+            mTimes[mSampleCount] = timeMillis;
+            mX[mSampleCount] = x;
+            mY[mSampleCount] = y;
+            mSampleCount++;
+            mSampleEnd[mEventCount - 1] = mSampleCount;
+            return this;
+        }
+
+        int getEventCount() {
+            return mEventCount;
+        }
+
+        TouchTrace build() {
+            return new TouchTrace(this);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.MotionEvent;
+
+/**
+ * Records the touch events handled by a {@link ProtractorView} into a {@link TouchTrace}, enabled with
+ * {@link ProtractorView#setTouchTraceRecorder(TouchTraceRecorder)}. Meant for capturing gestures which
+ * misbehave, so they can be checked in and replayed by tests: recording allocates as the trace grows.
+ * The view size and tick dimensions are taken from the view when the first event is recorded.
+ * Must only be used from the UI thread.
+ */
+public final class TouchTraceRecorder {
+
+    private TouchTrace.Builder mBuilder;
+
+    /**
+     * Appends the event with its batched historical samples, single pointer only as ProtractorView handles.
+     *
+     * @param width      width the view was laid out for, in pixels
+     * @param height     height the view was laid out for, in pixels
+     * @param tickOffset tick offset of the view, in pixels
+     * @param tickLength tick length of the view, in pixels
+     * @param density    display density
+     */
+    void record(MotionEvent event, int width, int height, int tickOffset, int tickLength, boolean touchInside,
+                float density) {
+        if (mBuilder == null) {
+            mBuilder = new TouchTrace.Builder(width / density, height / density, tickOffset / density,
+                    tickLength / density, touchInside);
+        }
+        mBuilder.beginEvent(event.getActionMasked());
+        int historySize = event.getHistorySize();
+        for (int h = 0; h < historySize; h++) {
+            mBuilder.addSample(event.getHistoricalEventTime(h),
+                    event.getHistoricalX(h) / density, event.getHistoricalY(h) / density);
+        }
+        mBuilder.addSample(event.getEventTime(), event.getX() / density, event.getY() / density);
+    }
+
+    /**
+     * @return number of events recorded since the last {@link #finish()}
+     */
+    public int getEventCount() {
+        return (mBuilder == null) ? 0 : mBuilder.getEventCount();
+    }
+
+    /**
+     * Ends the current trace, the next recorded event starts a new one.
+     *
+     * @return the recorded trace, or null if no event was recorded
+     */
+    public TouchTrace finish() {
+        if (mBuilder == null) {
+            return null;
+        }
+        TouchTrace trace = mBuilder.build();
+        mBuilder = null;
+        return trace;
+    }
+}
@@ -0,0 +1,70 @@
+package com.goodiebag.protractorview;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the bytes allocated by the current thread, using the HotSpot per thread allocation counter.
+ * The cost of reading the counter itself is measured once and subtracted.
+ */
+final class AllocationMeter {
+
+    private static final int ROUNDS = 3;
+
+    private final com.sun.management.ThreadMXBean mThreadMXBean;
+    private final long mThreadId;
+    private final long mOverhead;
+
+    AllocationMeter() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+            mThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            mThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            mThreadMXBean = null;
+        }
+        mThreadId = Thread.currentThread().getId();
+        //Reading the counter may allocate a little itself, the smallest of a few reads is the baseline
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 16 && mThreadMXBean != null; i++) {
+            long start = allocatedBytes();
+            overhead = Math.min(overhead, allocatedBytes() - start);
+        }
+        mOverhead = (mThreadMXBean == null) ? 0 : overhead;
+    }
+
+    boolean isSupported() {
+        return mThreadMXBean != null;
+    }
+
+    /**
+     * Runs the block {@code warmups} times, then {@code iterations} times while counting allocations.
+     * The counting is repeated a few times and the smallest count is kept: the JVM itself sometimes allocates
+     * on the measured thread (compilation, call site linking), code allocating on every call shows up in every round.
+     *
+     * @return bytes allocated by the measured iterations
+     */
+    long measure(Block block, int warmups, int iterations) {
+        for (int i = 0; i < warmups; i++) {
+            block.run(i);
+        }
+        long bytes = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS && bytes > 0; round++) {
+            long start = allocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                block.run(i);
+            }
+            bytes = Math.min(bytes, Math.max(0, allocatedBytes() - start - mOverhead));
+        }
+        return bytes;
+    }
+
+    private long allocatedBytes() {
+        return mThreadMXBean.getThreadAllocatedBytes(mThreadId);
+    }
+
+    interface Block {
+        void run(int iteration);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.animation.Interpolator;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Timing and retargeting of {@link AngleAnimation}.
+ */
+public class AngleAnimationTest {
+
+    //Quadratic ease out, starting twice as fast as a linear curve
+    private static final Interpolator EASE_OUT = new Interpolator() {
+        @Override
+        public float getInterpolation(float input) {
+            return 1 - (1 - input) * (1 - input);
+        }
+    };
+
+    @Test
+    public void followsTheInterpolatorToTheTarget() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        animation.start(20, 120, 0, 1000, EASE_OUT);
+        assertTrue(animation.step(500));
+        assertEquals(20 + 100 * 0.75f, animation.getAngle(), 1e-3);
+        assertFalse(animation.step(1000));
+        assertEquals(120, animation.getAngle(), 0);
+        assertEquals(0, animation.getVelocity(), 0);
+    }
+
+    @Test
+    public void retargetingKeepsTheSpeed() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        //0.18 degree per millisecond
+        animation.start(0, 180, 0, 1000, null);
+        animation.step(500);
+        assertEquals(90, animation.getAngle(), 1e-3);
+        float velocity = animation.getVelocity();
+        assertEquals(0.18f, velocity, 1e-4);
+
+        //Restarting the curve from 90 to 100 would crawl at 0.01 degree per millisecond
+        animation.start(0, 100, 500, 1000, null);
+        assertEquals(90, animation.getAngle(), 1e-3);
+        animation.step(500);
+        assertEquals(velocity, animation.getVelocity(), 1e-3);
+        animation.step(501);
+        assertEquals(90 + velocity, animation.getAngle(), 1e-2);
+
+        //The carried speed fades out, the target is still reached on time
+        assertFalse(animation.step(1500));
+        assertEquals(100, animation.getAngle(), 0);
+    }
+
+    @Test
+    public void retargetingKeepsTheSpeedOfEveryCurve() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        animation.start(0, 180, 0, 1000, EASE_OUT);
+        animation.step(200);
+        float angle = animation.getAngle();
+        float velocity = animation.getVelocity();
+        //Slope of the ease out at 0.2
+        assertEquals(180 * 2 * 0.8f / 1000, velocity, 1e-3);
+
+        animation.start(0, 60, 200, 300, EASE_OUT);
+        animation.step(200);
+        assertEquals(velocity, animation.getVelocity(), 1e-3);
+        animation.step(201);
+        assertEquals(angle + velocity, animation.getAngle(), 1e-2);
+        //Retargeting again while the carried speed fades out
+        animation.step(300);
+        velocity = animation.getVelocity();
+        angle = animation.getAngle();
+        animation.start(0, 30, 300, 300, null);
+        animation.step(300);
+        assertEquals(velocity, animation.getVelocity(), 1e-3);
+        animation.step(301);
+        assertEquals(angle + velocity, animation.getAngle(), 1e-2);
+    }
+
+    @Test
+    public void carriedSpeedNeverTakesTheAnglePastTheTarget() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        animation.start(0, 180, 0, 300, EASE_OUT);
+        animation.step(100);
+        //About 100 degrees at 0.8 degree per millisecond
+        assertEquals(100, animation.getAngle(), 1e-2);
+        assertEquals(0.8f, animation.getVelocity(), 1e-2);
+
+        animation.start(0, 110, 100, 300, EASE_OUT);
+        float previous = animation.getAngle();
+        for (long time = 100; time <= 400; time++) {
+            animation.step(time);
+            assertTrue(time + "ms: " + animation.getAngle(), animation.getAngle() <= 110);
+            assertTrue(animation.getAngle() >= previous);
+            previous = animation.getAngle();
+        }
+        assertEquals(110, animation.getAngle(), 0);
+        assertFalse(animation.isRunning());
+    }
+
+    @Test
+    public void carriedSpeedStaysOnATargetEqualToTheStart() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        animation.start(0, 180, 0, 1000, null);
+        animation.step(500);
+        animation.start(0, 90, 500, 1000, null);
+        for (long time = 500; time <= 1500; time += 10) {
+            animation.step(time);
+            assertEquals(90, animation.getAngle(), 0);
+        }
+    }
+
+    @Test
+    public void startingAfterAStopDoesNotCarryAnySpeed() throws Exception {
+        AngleAnimation animation = new AngleAnimation();
+        animation.start(0, 180, 0, 100, null);
+        animation.step(50);
+        animation.cancel();
+        animation.start(40, 140, 1000, 1000, null);
+        animation.step(1500);
+        assertEquals(90, animation.getAngle(), 1e-3);
+    }
+}
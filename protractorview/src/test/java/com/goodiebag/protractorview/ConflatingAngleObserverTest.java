@@ -0,0 +1,151 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Conflation and ordering of {@link ConflatingAngleObserver}.
+ */
+public class ConflatingAngleObserverTest {
+
+    //Runs the queued tasks only when asked, like a busy background thread
+    private final Queue<Runnable> mTasks = new ArrayDeque<>();
+    private final Executor mExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            mTasks.add(command);
+        }
+    };
+    private final List<String> mDeliveries = new ArrayList<>();
+
+    private final ProtractorView.OnAngleChangeObserver mRecorder = new ProtractorView.OnAngleChangeObserver() {
+        @Override
+        public void onAngleChanged(int angle, boolean fromUser, boolean isFinal) {
+            mDeliveries.add(angle + (fromUser ? " user" : "") + (isFinal ? " final" : ""));
+        }
+    };
+
+    @Test
+    public void busyObserverOnlyGetsTheNewestAngle() throws Exception {
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(mRecorder, mExecutor);
+        observer.post(10, true, false);
+        observer.post(20, true, false);
+        observer.post(30, true, false);
+        assertEquals(1, mTasks.size());
+        runTasks();
+        assertEquals("[30 user]", mDeliveries.toString());
+    }
+
+    @Test
+    public void anglePostedDuringADeliveryFollowsIt() throws Exception {
+        final ConflatingAngleObserver[] holder = new ConflatingAngleObserver[1];
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(new ProtractorView.OnAngleChangeObserver() {
+            @Override
+            public void onAngleChanged(int angle, boolean fromUser, boolean isFinal) {
+                mDeliveries.add(Integer.toString(angle));
+                if (angle == 1) {
+                    holder[0].post(2, false, false);
+                    holder[0].post(3, false, false);
+                }
+            }
+        }, mExecutor);
+        holder[0] = observer;
+        observer.post(1, false, false);
+        runTasks();
+        assertEquals("[1, 3]", mDeliveries.toString());
+    }
+
+    @Test
+    public void finalAngleIsDelivered() throws Exception {
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(mRecorder, mExecutor);
+        observer.post(90, true, false);
+        runTasks();
+        observer.post(90, true, true);
+        runTasks();
+        assertEquals("[90 user, 90 user final]", mDeliveries.toString());
+    }
+
+    @Test
+    public void finalFlagSurvivesNewerAngles() throws Exception {
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(mRecorder, mExecutor);
+        observer.post(90, true, true);
+        //The next gesture starts before the executor runs
+        observer.post(30, true, false);
+        observer.post(35, false, false);
+        runTasks();
+        observer.post(40, false, false);
+        runTasks();
+        assertEquals("[35 final, 40]", mDeliveries.toString());
+    }
+
+    @Test
+    public void throwingObserverStillGetsTheNextAngles() throws Exception {
+        final ConflatingAngleObserver[] holder = new ConflatingAngleObserver[1];
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(new ProtractorView.OnAngleChangeObserver() {
+            @Override
+            public void onAngleChanged(int angle, boolean fromUser, boolean isFinal) {
+                mDeliveries.add(Integer.toString(angle));
+                if (angle == 1) {
+                    holder[0].post(2, false, false);
+                    throw new IllegalStateException();
+                }
+            }
+        }, mExecutor);
+        holder[0] = observer;
+        observer.post(1, false, false);
+        try {
+            mTasks.poll().run();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        //The angle posted during the failed delivery is scheduled again
+        runTasks();
+        observer.post(3, false, false);
+        runTasks();
+        assertEquals("[1, 2, 3]", mDeliveries.toString());
+    }
+
+    @Test
+    public void removedObserverIsNotCalled() throws Exception {
+        ConflatingAngleObserver observer = new ConflatingAngleObserver(mRecorder, mExecutor);
+        observer.post(45, false, false);
+        observer.remove();
+        runTasks();
+        assertEquals(0, mDeliveries.size());
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = mTasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * How each {@link ProtractorView.DispatchMode} delivers onProgressChanged, and the flushes keeping it in order.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DispatchModeTest {
+
+    private ProtractorView mView;
+    private final List<String> mEvents = new ArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        //Attached, so animation frames go through the Choreographer, and paused, so they only run when asked to
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        mView = new ProtractorView(activity);
+        activity.setContentView(mView);
+        ShadowLooper.idleMainLooper();
+        ShadowLooper.pauseMainLooper();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void immediateDeliversEveryUpdate() throws Exception {
+        mView.setOnProtractorViewChangeListener(new RecordingListener(""), ProtractorView.DispatchMode.IMMEDIATE);
+        mView.setAngle(30);
+        mView.setAngle(30);
+        mView.setAngle(40);
+        assertEquals("[30, 30, 40]", mEvents.toString());
+    }
+
+    @Test
+    public void distinctDropsRepeatedAngles() throws Exception {
+        mView.setOnProtractorViewChangeListener(new RecordingListener(""), ProtractorView.DispatchMode.DISTINCT);
+        mView.setAngle(30);
+        mView.setAngle(30);
+        mView.setAngle(40);
+        mView.setAngle(40);
+        mView.setAngle(30);
+        assertEquals("[30, 40, 30]", mEvents.toString());
+    }
+
+    @Test
+    public void perFrameDeliversTheLatestAngleOncePerFrame() throws Exception {
+        mView.setOnProtractorViewChangeListener(new RecordingListener(""), ProtractorView.DispatchMode.PER_FRAME);
+        long now = SystemClock.uptimeMillis();
+        touch(MotionEvent.ACTION_DOWN, now, 90);
+        int first = mView.getAngle();
+        touch(MotionEvent.ACTION_MOVE, now + 5, 100);
+        touch(MotionEvent.ACTION_MOVE, now + 10, 110);
+        int latest = mView.getAngle();
+        assertNotEquals(first, latest);
+        assertEquals("[start]", mEvents.toString());
+
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[start, " + latest + " user]", mEvents.toString());
+
+        touch(MotionEvent.ACTION_MOVE, now + 20, 120);
+        touch(MotionEvent.ACTION_MOVE, now + 25, 130);
+        int next = mView.getAngle();
+        ShadowLooper.runUiThreadTasks();
+        //No update since the last frame, nothing to deliver
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[start, " + latest + " user, " + next + " user]", mEvents.toString());
+    }
+
+    @Test
+    public void pendingPerFrameCallIsFlushedBeforeStopTrackingTouch() throws Exception {
+        mView.setOnProtractorViewChangeListener(new RecordingListener(""), ProtractorView.DispatchMode.PER_FRAME);
+        long now = SystemClock.uptimeMillis();
+        touch(MotionEvent.ACTION_DOWN, now, 90);
+        touch(MotionEvent.ACTION_MOVE, now + 5, 100);
+        touch(MotionEvent.ACTION_UP, now + 10, 100);
+        String expected = "[start, " + mView.getAngle() + " user, stop]";
+        assertEquals(expected, mEvents.toString());
+
+        //The flushed call is not delivered a second time
+        ShadowLooper.runUiThreadTasks();
+        assertEquals(expected, mEvents.toString());
+    }
+
+    @Test
+    public void pendingPerFrameCallIsFlushedWhenTheListenerIsReplaced() throws Exception {
+        mView.setOnProtractorViewChangeListener(new RecordingListener("old "), ProtractorView.DispatchMode.PER_FRAME);
+        mView.setAngle(70);
+        mView.setOnProtractorViewChangeListener(new RecordingListener("new "), ProtractorView.DispatchMode.PER_FRAME);
+        assertEquals("[old 70]", mEvents.toString());
+
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[old 70]", mEvents.toString());
+    }
+
+    @Test
+    public void pendingPerFrameCallIsFlushedWhenTheModeIsReplaced() throws Exception {
+        RecordingListener listener = new RecordingListener("");
+        mView.setOnProtractorViewChangeListener(listener, ProtractorView.DispatchMode.PER_FRAME);
+        mView.setAngle(70);
+        mView.setOnProtractorViewChangeListener(listener, ProtractorView.DispatchMode.IMMEDIATE);
+        assertEquals("[70]", mEvents.toString());
+
+        ShadowLooper.runUiThreadTasks();
+        mView.setAngle(80);
+        assertEquals("[70, 80]", mEvents.toString());
+    }
+
+    /**
+     * Touches the middle of the arc at the given angle.
+     */
+    private void touch(int action, long time, int angle) {
+        ArcLayout arcLayout = new ArcLayout();
+        arcLayout.measure(mView.getWidth(), mView.getHeight(), mView.getTickOffset(), mView.getTickLength(),
+                mView.getResources().getDisplayMetrics().density);
+        double radius = arcLayout.arcRadius + mView.getTickOffset() + mView.getTickLength() / 2;
+        float x = arcLayout.centerX + (float) (radius * Math.cos(Math.toRadians(angle + 0.5)));
+        float y = arcLayout.centerY - (float) (radius * Math.sin(Math.toRadians(angle + 0.5)));
+        MotionEvent event = MotionEvent.obtain(time, time, action, x, y, 0);
+        mView.onTouchEvent(event);
+        event.recycle();
+    }
+
+    private class RecordingListener implements ProtractorView.OnProtractorViewChangeListener {
+        private final String mName;
+
+        RecordingListener(String name) {
+            mName = name;
+        }
+
+        @Override
+        public void onProgressChanged(ProtractorView protractorView, int progress, boolean fromUser) {
+            mEvents.add(mName + progress + (fromUser ? " user" : ""));
+        }
+
+        @Override
+        public void onStartTrackingTouch(ProtractorView protractorView) {
+            mEvents.add(mName + "start");
+        }
+
+        @Override
+        public void onStopTrackingTouch(ProtractorView protractorView) {
+            mEvents.add(mName + "stop");
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Draw-call budgets of one ProtractorView frame. The number of canvas calls must not grow with the number of ticks:
+ * ticks are drawn in at most two batches, and only labels cost one call each.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DrawBudgetTest {
+
+    private static final int SIZE = 1080;
+    private static final int[] ANGLES = {0, 37, 90, 180};
+
+    //Two arcs and the thumb, each drawn in its own save / restore
+    private static final int SAVES = 3;
+    //canvas.scale around a pivot is a translate, a scale and a translate; the thumb adds one translate
+    private static final int MATRIX_OPS = 3 * 3 + 1;
+    //Arc(s), tick batches, static layer and thumb, on top of the labels
+    private static final int FIXED_DRAW_CALLS = 6;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "tickIntervals={0}, ticksBetweenLabel={1}, cache={2}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (int tickIntervals : new int[]{1, 5, 15, 45}) {
+            for (ProtractorView.TicksBetweenLabel ticksBetweenLabel : ProtractorView.TicksBetweenLabel.values()) {
+                parameters.add(new Object[]{tickIntervals, ticksBetweenLabel, false});
+                parameters.add(new Object[]{tickIntervals, ticksBetweenLabel, true});
+            }
+        }
+        return parameters;
+    }
+
+    private final int mTickIntervals;
+    private final ProtractorView.TicksBetweenLabel mTicksBetweenLabel;
+    private final boolean mCacheStaticLayer;
+
+    private ProtractorView mView;
+    private final RecordingCanvas mCanvas = new RecordingCanvas();
+
+    public DrawBudgetTest(int tickIntervals, ProtractorView.TicksBetweenLabel ticksBetweenLabel, boolean cacheStaticLayer) {
+        mTickIntervals = tickIntervals;
+        mTicksBetweenLabel = ticksBetweenLabel;
+        mCacheStaticLayer = cacheStaticLayer;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mView = new ProtractorView(RuntimeEnvironment.application);
+        mView.setTickIntervals(mTickIntervals);
+        mView.setTicksBetweenLabel(mTicksBetweenLabel);
+        mView.setStaticLayerCacheEnabled(mCacheStaticLayer);
+        ViewFixtures.layOut(mView, SIZE, SIZE);
+    }
+
+    @Test
+    public void frameStaysWithinBudget() throws Exception {
+        int labelSlots = 180 / (mTickIntervals * (mTicksBetweenLabel.ordinal() + 1)) + 1;
+        for (int angle : ANGLES) {
+            mView.setAngle(angle);
+            mCanvas.endFrame();
+            mView.onDraw(mCanvas);
+            mCanvas.endFrame()
+                    .assertBalanced()
+                    .assertAtMost(RecordingCanvas.Op.SAVE, SAVES)
+                    .assertMatrixOpsAtMost(MATRIX_OPS)
+                    .assertAtMost(RecordingCanvas.Op.DRAW_LINE, 0)
+                    .assertAtMost(RecordingCanvas.Op.DRAW_LINES, 2)
+                    .assertAtMost(RecordingCanvas.Op.DRAW_ARC, 2)
+                    .assertAtMost(RecordingCanvas.Op.DRAW_PATH, 0)
+                    .assertAtMost(RecordingCanvas.Op.DRAW_TEXT, labelSlots)
+                    .assertDrawCallsAtMost(labelSlots + FIXED_DRAW_CALLS);
+        }
+    }
+
+    @Test
+    public void thumbLayerTakesTheThumbOutOfTheBody() throws Exception {
+        mView.setThumbLayerEnabled(true);
+        mView.setAngle(90);
+        mView.onDraw(mCanvas);
+        //Only the two arcs are drawn in a save / restore, the thumb transform is gone
+        mCanvas.endFrame()
+                .assertBalanced()
+                .assertAtMost(RecordingCanvas.Op.SAVE, SAVES - 1)
+                .assertMatrixOpsAtMost(MATRIX_OPS - 4);
+    }
+
+    @Test
+    public void staticLayerOnlyRedrawsTheHighlightedPart() throws Exception {
+        assumeTrue(mCacheStaticLayer);
+        mView.setAngle(0);
+        mView.onDraw(mCanvas);
+        mCanvas.endFrame();
+        mView.onDraw(mCanvas);
+        RecordingCanvas.Frame frame = mCanvas.endFrame();
+        //Only the label at 0 is highlighted
+        assertEquals(frame.toString(), 1, frame.count(RecordingCanvas.Op.DRAW_TEXT));
+        assertEquals(frame.toString(), 1, frame.count(RecordingCanvas.Op.DRAW_ARC));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Color;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import com.goodiebag.protractorview.ViewFixtures.CountingProtractorView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Batched property changes through {@link ProtractorView#edit()}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class EditorTest {
+
+    private static final int SIZE = 600;
+
+    private CountingProtractorView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = ViewFixtures.countingProtractorView(RuntimeEnvironment.application, SIZE);
+    }
+
+    @Test
+    public void batchInvalidatesAndNotifiesOnce() throws Exception {
+        mView.edit()
+                .setArcColor(Color.RED)
+                .setProgressColor(Color.GREEN)
+                .setArcWidth(5)
+                .setTickIntervals(5)
+                .setAngleTextSize(30)
+                .setAngle(45)
+                .apply();
+        assertEquals(Color.RED, mView.getArcColor());
+        assertEquals(Color.GREEN, mView.getProgressColor());
+        assertEquals(5, mView.getArcWidth());
+        assertEquals(5, mView.getTickIntervals());
+        assertEquals(30, mView.getAngleTextSize());
+        assertEquals(45, mView.getAngle());
+        assertEquals(1, mView.invalidates);
+        assertEquals(1, mView.progressChanges);
+        assertEquals(0, mView.layoutRequests);
+    }
+
+    @Test
+    public void tickDimensionsRequestOneLayout() throws Exception {
+        mView.edit()
+                .setTickOffset(mView.getTickOffset() + 4)
+                .setTickLength(mView.getTickLength() + 4)
+                .apply();
+        assertEquals(1, mView.layoutRequests);
+        assertTrue(mView.isLayoutRequested());
+    }
+
+    @Test
+    public void unchangedValuesDoNothing() throws Exception {
+        mView.edit()
+                .setArcColor(mView.getArcColor())
+                .setTickIntervals(mView.getTickIntervals())
+                .setTickOffset(mView.getTickOffset())
+                .apply();
+        assertEquals(0, mView.invalidates);
+        assertEquals(0, mView.layoutRequests);
+    }
+
+    @Test
+    public void newBatchDiscardsAnUnappliedOne() throws Exception {
+        mView.edit().setAngle(120);
+        mView.edit().setArcWidth(7).apply();
+        assertEquals(0, mView.getAngle());
+        assertEquals(0, mView.progressChanges);
+        assertEquals(7, mView.getArcWidth());
+    }
+}
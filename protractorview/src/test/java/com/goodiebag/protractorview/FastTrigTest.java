@@ -0,0 +1,75 @@
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the table based trigonometry against java.lang.Math and the touch mapping against
+ * the implementation it replaced.
+ */
+public class FastTrigTest {
+
+    @Test
+    public void sinAndCosMatchMath() throws Exception {
+        for (int degrees = 0; degrees <= FastTrig.MAX_DEGREES; degrees++) {
+            assertEquals(Math.sin(Math.toRadians(degrees)), FastTrig.sin(degrees), 1e-12);
+            assertEquals(Math.cos(Math.toRadians(degrees)), FastTrig.cos(degrees), 1e-12);
+        }
+    }
+
+    @Test
+    public void atan2MatchesMath() throws Exception {
+        for (int y = -200; y <= 200; y += 3) {
+            for (int x = -200; x <= 200; x += 3) {
+                if (x == 0 && y == 0) {
+                    continue;
+                }
+                double expected = Math.toDegrees(Math.atan2(y, x));
+                assertEquals("atan2(" + y + ", " + x + ")", expected, FastTrig.atan2Degrees(y, x), 0.01);
+            }
+        }
+    }
+
+    @Test
+    public void touchDegreesWithinOneDegreeOfMath() throws Exception {
+        for (float y = -300; y <= 300; y += 1.7f) {
+            for (float x = -300; x <= 300; x += 1.3f) {
+                int expected = (int) referenceTouchDegrees(x, y);
+                int actual = (int) ArcLayout.touchDegrees(x, y);
+                assertTrue("touch (" + x + ", " + y + ") expected " + expected + " was " + actual,
+                        Math.abs(expected - actual) <= 1);
+            }
+        }
+    }
+
+    @Test
+    public void touchBelowTheArcSnapsToTheClosestEnd() throws Exception {
+        assertEquals(0, (int) ArcLayout.touchDegrees(10, 50));
+        assertEquals(180, (int) ArcLayout.touchDegrees(-10, 50));
+        assertEquals(180, (int) ArcLayout.touchDegrees(0, 50));
+        assertEquals(90, (int) Math.round(ArcLayout.touchDegrees(0, -50)));
+    }
+
+    @Test
+    public void thumbPositionMatchesMath() throws Exception {
+        for (int radius = 0; radius <= 1000; radius += 7) {
+            for (int angle = 0; angle <= FastTrig.MAX_DEGREES; angle++) {
+                assertEquals((int) (radius * Math.cos(Math.toRadians(angle))), (int) (radius * FastTrig.cos(angle)));
+                assertEquals((int) (radius * Math.sin(Math.toRadians(angle))), (int) (radius * FastTrig.sin(angle)));
+            }
+        }
+    }
+
+    //The touch mapping ProtractorView used before the lookup tables
+    private static double referenceTouchDegrees(float x, float y) {
+        x = -x;
+        double angle = Math.toDegrees(Math.atan2(y, x) + (Math.PI));
+        if (angle > 270)
+            angle = 0;
+        else if (angle > 180)
+            angle = 180;
+        return angle;
+    }
+}
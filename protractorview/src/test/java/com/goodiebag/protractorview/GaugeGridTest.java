@@ -0,0 +1,130 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Spatial index of {@link GaugeGrid}.
+ */
+public class GaugeGridTest {
+
+    @Test
+    public void everyCellHoldsTheGaugesCoveringIt() throws Exception {
+        Random random = new Random(42);
+        int count = 50;
+        int[] bounds = new int[count * GaugeGrid.INTS_PER_BOUNDS];
+        for (int i = 0; i < count; i++) {
+            int left = random.nextInt(1000);
+            int top = random.nextInt(1000);
+            int size = 50 + random.nextInt(200);
+            setBounds(bounds, i, left, top, left + size, top + size);
+        }
+        GaugeGrid grid = new GaugeGrid();
+        grid.rebuild(bounds, count);
+
+        for (int n = 0; n < 10000; n++) {
+            int x = random.nextInt(1300);
+            int y = random.nextInt(1300);
+            List<Integer> expected = new ArrayList<Integer>();
+            for (int i = 0; i < count; i++) {
+                if (contains(bounds, i, x, y)) {
+                    expected.add(i);
+                }
+            }
+            List<Integer> found = new ArrayList<Integer>();
+            int cell = grid.cellAt(x, y);
+            if (cell >= 0) {
+                for (int e = grid.cellStart[cell]; e < grid.cellStart[cell + 1]; e++) {
+                    if (contains(bounds, grid.entries[e], x, y)) {
+                        found.add(grid.entries[e]);
+                    }
+                }
+            }
+            //Same gauges, in drawing order
+            assertEquals(expected, found);
+        }
+    }
+
+    @Test
+    public void cellsAreAboutTheSizeOfAGauge() throws Exception {
+        int[] bounds = new int[16 * GaugeGrid.INTS_PER_BOUNDS];
+        for (int i = 0; i < 16; i++) {
+            int left = (i % 4) * 200;
+            int top = (i / 4) * 100;
+            setBounds(bounds, i, left, top, left + 200, top + 100);
+        }
+        GaugeGrid grid = new GaugeGrid();
+        grid.rebuild(bounds, 16);
+        assertEquals(100, grid.cellSize);
+        //No cell is shared by more than the gauges touching it
+        for (int c = 0; c < grid.columns * grid.rows; c++) {
+            assertTrue(grid.cellStart[c + 1] - grid.cellStart[c] <= 1);
+        }
+        assertEquals(-1, grid.cellAt(-1, 10));
+        assertEquals(-1, grid.cellAt(10, 5000));
+    }
+
+    @Test
+    public void farApartGaugesKeepTheGridSmall() throws Exception {
+        int[] bounds = new int[2 * GaugeGrid.INTS_PER_BOUNDS];
+        setBounds(bounds, 0, 0, 0, 10, 10);
+        setBounds(bounds, 1, 100000, 100000, 100010, 100010);
+        GaugeGrid grid = new GaugeGrid();
+        grid.rebuild(bounds, 2);
+        assertTrue(grid.columns * grid.rows <= GaugeGrid.MAX_CELLS);
+        int cell = grid.cellAt(100005, 100005);
+        assertTrue(cell >= 0);
+        assertEquals(1, grid.entries[grid.cellStart[cell + 1] - 1]);
+    }
+
+    @Test
+    public void emptyGaugesAreLeftOut() throws Exception {
+        int[] bounds = new int[2 * GaugeGrid.INTS_PER_BOUNDS];
+        setBounds(bounds, 0, 10, 10, 10, 50);
+        setBounds(bounds, 1, 0, 0, 100, 100);
+        GaugeGrid grid = new GaugeGrid();
+        grid.rebuild(bounds, 2);
+        int cell = grid.cellAt(10, 20);
+        assertEquals(1, grid.cellStart[cell + 1] - grid.cellStart[cell]);
+        assertEquals(1, grid.entries[grid.cellStart[cell]]);
+    }
+
+    private static void setBounds(int[] bounds, int gauge, int left, int top, int right, int bottom) {
+        int index = gauge * GaugeGrid.INTS_PER_BOUNDS;
+        bounds[index] = left;
+        bounds[index + 1] = top;
+        bounds[index + 2] = right;
+        bounds[index + 3] = bottom;
+    }
+
+    private static boolean contains(int[] bounds, int gauge, int x, int y) {
+        int index = gauge * GaugeGrid.INTS_PER_BOUNDS;
+        return x >= bounds[index] && x < bounds[index + 2] && y >= bounds[index + 1] && y < bounds[index + 3];
+    }
+}
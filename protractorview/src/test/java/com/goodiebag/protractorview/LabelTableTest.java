@@ -0,0 +1,79 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Label culling of {@link LabelTable} on views too small for all their labels.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class LabelTableTest {
+
+    private static final int MAX = 180;
+    private static final int TICK_OFFSET = 12;
+    private static final int TICK_LENGTH = 10;
+    private static final float MIN_TICK_GAP = 8;
+    private static final int TEXT_SIZE = 24;
+
+    @Test
+    public void denseLabelsOnASmallArcDoNotOverlap() throws Exception {
+        ProtractorStyle.Builder builder = new ProtractorStyle.Builder();
+        builder.angleTextSize = TEXT_SIZE;
+        ProtractorStyle style = builder.build();
+        TickGeometry geometry = new TickGeometry();
+        //A label every 2 degrees on a 60 px arc
+        int radius = 60;
+        geometry.rebuild(radius, radius, radius, TICK_OFFSET, TICK_LENGTH, 2, 0, MAX, MIN_TICK_GAP);
+        LabelTable table = new LabelTable();
+        table.rebuild(geometry, style);
+
+        assertTrue(table.count > 1);
+        assertTrue(table.count < geometry.labelCount);
+        assertEquals(0, table.angles[0]);
+        float spacing = TEXT_SIZE / 4f;
+        for (int i = 0; i < table.count; i++) {
+            if (i > 0) {
+                assertTrue(table.angles[i] > table.angles[i - 1]);
+            }
+            for (int j = i + 1; j < table.count; j++) {
+                boolean apartX = Math.abs(table.x[i] - table.x[j]) >= (table.widths[i] + table.widths[j]) / 2 + spacing;
+                boolean apartY = Math.abs(table.baselines[i] - table.baselines[j]) >= TEXT_SIZE + spacing;
+                assertTrue(table.angles[i] + " and " + table.angles[j] + " overlap", apartX || apartY);
+            }
+        }
+        //Only kept labels are highlighted
+        for (int angle = 0; angle <= MAX; angle++) {
+            int kept = 0;
+            while (kept < table.count && table.angles[kept] <= angle) {
+                kept++;
+            }
+            assertEquals(kept, table.progressCount(angle));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.graphics.drawable.ShapeDrawable;
+import android.util.AttributeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Shared resolution of the attributes in {@link ProtractorAttributes}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ProtractorAttributesTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() throws Exception {
+        mContext = RuntimeEnvironment.application;
+        ProtractorAttributes.clearCache();
+    }
+
+    @Test
+    public void viewsWithoutOwnAttributesShareTheResolvedValues() throws Exception {
+        AttributeSet layoutOnly = Robolectric.buildAttributeSet()
+                .addAttribute(android.R.attr.layout_width, "match_parent")
+                .build();
+        ProtractorAttributes first = ProtractorAttributes.obtain(mContext, layoutOnly, R.attr.protractorViewStyle, 0);
+        ProtractorAttributes second = ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0);
+        assertSame(first, second);
+        assertNotNull(first.style.thumbState);
+        //The thumb drawable is left to the view
+        assertNull(first.thumb);
+    }
+
+    @Test
+    public void ownAttributesAreResolvedOnTopOfTheSharedValues() throws Exception {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.angle, "45")
+                .addAttribute(R.attr.tickIntervals, "5")
+                .build();
+        assertTrue(ProtractorAttributes.hasOwnAttributes(attrs));
+        ProtractorAttributes shared = ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0);
+        ProtractorAttributes own = ProtractorAttributes.obtain(mContext, attrs, R.attr.protractorViewStyle, 0);
+        assertNotSame(shared, own);
+        assertEquals(45, own.angle);
+        assertEquals(5, own.tickIntervals);
+        assertEquals(shared.tickOffset, own.tickOffset);
+        //Same look, same interned style
+        assertSame(shared.style, own.style);
+    }
+
+    @Test
+    public void configurationChangesResolveTheValuesAgain() throws Exception {
+        Resources res = mContext.getResources();
+        Configuration config = new Configuration(res.getConfiguration());
+        ProtractorAttributes before = ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0);
+        try {
+            Configuration changed = new Configuration(config);
+            changed.fontScale = config.fontScale * 1.5f;
+            res.updateConfiguration(changed, res.getDisplayMetrics());
+            assertNotSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+            //Back to the first configuration, back to its values
+            res.updateConfiguration(config, res.getDisplayMetrics());
+            assertSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+            changed = new Configuration(config);
+            changed.uiMode = Configuration.UI_MODE_TYPE_NORMAL | Configuration.UI_MODE_NIGHT_YES;
+            res.updateConfiguration(changed, res.getDisplayMetrics());
+            assertNotSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+        } finally {
+            res.updateConfiguration(config, res.getDisplayMetrics());
+        }
+    }
+
+    @Test
+    public void orientationAndScreenSizeChangesResolveTheValuesAgain() throws Exception {
+        Resources res = mContext.getResources();
+        Configuration original = new Configuration(res.getConfiguration());
+        //An undefined orientation would not be restored, updating a configuration skips undefined values
+        Configuration config = new Configuration(original);
+        config.orientation = Configuration.ORIENTATION_PORTRAIT;
+        res.updateConfiguration(config, res.getDisplayMetrics());
+        ProtractorAttributes before = ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0);
+        try {
+            Configuration changed = new Configuration(config);
+            changed.orientation = Configuration.ORIENTATION_LANDSCAPE;
+            res.updateConfiguration(changed, res.getDisplayMetrics());
+            assertNotSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+
+            changed = new Configuration(config);
+            changed.screenWidthDp = config.screenWidthDp + 100;
+            res.updateConfiguration(changed, res.getDisplayMetrics());
+            assertNotSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+
+            changed = new Configuration(config);
+            changed.smallestScreenWidthDp = config.smallestScreenWidthDp + 100;
+            res.updateConfiguration(changed, res.getDisplayMetrics());
+            assertNotSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+
+            res.updateConfiguration(config, res.getDisplayMetrics());
+            assertSame(before, ProtractorAttributes.obtain(mContext, null, R.attr.protractorViewStyle, 0));
+        } finally {
+            res.updateConfiguration(original, res.getDisplayMetrics());
+        }
+    }
+
+    @Test
+    public void viewKeepsAThumbWithoutConstantState() throws Exception {
+        ShapeDrawable thumb = new ShapeDrawable() {
+            @Override
+            public ConstantState getConstantState() {
+                return null;
+            }
+        };
+        thumb.setIntrinsicWidth(20);
+        thumb.setIntrinsicHeight(20);
+        ProtractorView view = ViewFixtures.layOut(new ProtractorView(mContext), 400, 400);
+        view.setThumb(thumb);
+        view.setThumbLayerEnabled(true);
+        view.onDraw(new NoOpCanvas());
+        assertSame(thumb, view.getThumb());
+        //The renderer cannot share the drawable, it draws no thumb
+        assertNotNull(new ProtractorRenderer(view).render(400, 400, 90));
+    }
+
+    @Test
+    public void layoutAttributesAreNotOwnAttributes() throws Exception {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(android.R.attr.layout_width, "match_parent")
+                .addAttribute(android.R.attr.layout_height, "wrap_content")
+                .build();
+        assertFalse(ProtractorAttributes.hasOwnAttributes(attrs));
+    }
+
+    @Test
+    public void viewMatchesItsResolvedAttributes() throws Exception {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.angle, "120")
+                .addAttribute(R.attr.ticksBetweenLabel, "one")
+                .build();
+        ProtractorView view = new ProtractorView(mContext, attrs);
+        assertEquals(120, view.getAngle());
+        assertEquals(ProtractorView.TicksBetweenLabel.ONE, view.getTicksBetweenLabel());
+        assertNotNull(view.getThumb());
+    }
+}
@@ -0,0 +1,194 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drawing and multi-touch routing of {@link ProtractorGroup}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ProtractorGroupTest {
+
+    private static final int GAUGE_SIZE = 300;
+    private static final int COLUMNS = 4;
+    private static final int ROWS = 5;
+
+    private ProtractorGroup mGroup;
+    //Layout every gauge gets, relative to its own bounds
+    private final ArcLayout mArcLayout = new ArcLayout();
+    private int mTickOffset;
+    private int mTickLength;
+    private final List<String> mEvents = new ArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        Context context = RuntimeEnvironment.application;
+        mGroup = new ProtractorGroup(context);
+        ViewFixtures.layOut(mGroup, COLUMNS * GAUGE_SIZE, ROWS * GAUGE_SIZE);
+        ProtractorView template = new ProtractorView(context);
+        mTickOffset = template.getTickOffset();
+        mTickLength = template.getTickLength();
+        mArcLayout.measure(GAUGE_SIZE, GAUGE_SIZE, mTickOffset, mTickLength,
+                context.getResources().getDisplayMetrics().density);
+
+        ProtractorGroup.OnGaugeChangeListener listener = new ProtractorGroup.OnGaugeChangeListener() {
+            @Override
+            public void onProgressChanged(ProtractorGroup.Gauge gauge, int progress, boolean fromUser) {
+                mEvents.add(gauge.getTag() + ":" + progress);
+            }
+
+            @Override
+            public void onStartTrackingTouch(ProtractorGroup.Gauge gauge) {
+                mEvents.add(gauge.getTag() + ":start");
+            }
+
+            @Override
+            public void onStopTrackingTouch(ProtractorGroup.Gauge gauge) {
+                mEvents.add(gauge.getTag() + ":stop");
+            }
+        };
+        for (int i = 0; i < COLUMNS * ROWS; i++) {
+            int left = (i % COLUMNS) * GAUGE_SIZE;
+            int top = (i / COLUMNS) * GAUGE_SIZE;
+            ProtractorGroup.Gauge gauge = mGroup.addGauge(left, top, left + GAUGE_SIZE, top + GAUGE_SIZE);
+            gauge.setTag(i);
+            gauge.setOnGaugeChangeListener(listener);
+        }
+    }
+
+    @Test
+    public void everyGaugeIsDrawnInOnePass() throws Exception {
+        RecordingCanvas canvas = new RecordingCanvas();
+        mGroup.onDraw(canvas);
+        RecordingCanvas.Frame frame = canvas.endFrame();
+        //Background and progress arc of every gauge
+        assertEquals(2 * COLUMNS * ROWS, frame.count(RecordingCanvas.Op.DRAW_ARC));
+        frame.assertBalanced();
+    }
+
+    @Test
+    public void pointersDragTheGaugeTheyWentDownOn() throws Exception {
+        ProtractorGroup.Gauge first = mGroup.getGauge(5);
+        ProtractorGroup.Gauge second = mGroup.getGauge(14);
+
+        assertTrue(mGroup.onPointerDown(0, x(first, 30), y(first, 30)));
+        assertTrue(mGroup.onPointerDown(1, x(second, 120), y(second, 120)));
+        assertTrue(first.isPressed() && second.isPressed());
+        mGroup.onPointerMove(0, x(first, 60), y(first, 60));
+        mGroup.onPointerMove(1, x(second, 150), y(second, 150));
+        mGroup.onPointerUp(1);
+        mGroup.onPointerMove(0, x(first, 90), y(first, 90));
+        mGroup.onPointerUp(0);
+
+        assertEquals(90, first.getAngle());
+        assertEquals(150, second.getAngle());
+        assertFalse(first.isPressed() || second.isPressed());
+        String[] expected = {"5:start", "5:30", "14:start", "14:120", "5:60", "14:150", "14:stop", "5:90", "5:stop"};
+        assertEquals(expected.length, mEvents.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], mEvents.get(i));
+        }
+    }
+
+    @Test
+    public void draggedGaugeIgnoresOtherPointers() throws Exception {
+        ProtractorGroup.Gauge gauge = mGroup.getGauge(0);
+        assertTrue(mGroup.onPointerDown(0, x(gauge, 30), y(gauge, 30)));
+        assertFalse(mGroup.onPointerDown(1, x(gauge, 120), y(gauge, 120)));
+        mGroup.onPointerMove(1, x(gauge, 150), y(gauge, 150));
+        assertEquals(30, gauge.getAngle());
+        mGroup.cancelTracking();
+        assertEquals("0:stop", mEvents.get(mEvents.size() - 1));
+    }
+
+    @Test
+    public void touchesOffTheRingOrOnDisabledGaugesAreIgnored() throws Exception {
+        ProtractorGroup.Gauge gauge = mGroup.getGauge(7);
+        float centerX = gauge.getBounds().left + mArcLayout.centerX;
+        float centerY = gauge.getBounds().top + mArcLayout.centerY;
+        assertFalse(mGroup.onPointerDown(0, centerX, centerY));
+        gauge.setEnabled(false);
+        assertFalse(mGroup.onPointerDown(0, x(gauge, 45), y(gauge, 45)));
+        assertTrue(mEvents.isEmpty());
+        assertSame(gauge, mGroup.gaugeAt(centerX, centerY));
+        assertNull(mGroup.gaugeAt(-1, -1));
+    }
+
+    @Test
+    public void movedGaugeIsFoundAtItsNewBounds() throws Exception {
+        ProtractorGroup.Gauge gauge = mGroup.getGauge(0);
+        int left = COLUMNS * GAUGE_SIZE;
+        gauge.setBounds(left, 0, left + GAUGE_SIZE, GAUGE_SIZE);
+        assertTrue(mGroup.onPointerDown(0, x(gauge, 45), y(gauge, 45)));
+        assertEquals("0:start", mEvents.get(0));
+        assertEquals(45, gauge.getAngle());
+    }
+
+    @Test
+    public void singlePointerGesture() throws Exception {
+        ProtractorGroup.Gauge gauge = mGroup.getGauge(3);
+        long now = SystemClock.uptimeMillis();
+        MotionEvent down = MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x(gauge, 10), y(gauge, 10), 0);
+        MotionEvent move = MotionEvent.obtain(now, now + 10, MotionEvent.ACTION_MOVE, x(gauge, 100), y(gauge, 100), 0);
+        MotionEvent up = MotionEvent.obtain(now, now + 20, MotionEvent.ACTION_UP, x(gauge, 100), y(gauge, 100), 0);
+        assertTrue(mGroup.onTouchEvent(down));
+        assertTrue(mGroup.onTouchEvent(move));
+        assertTrue(mGroup.onTouchEvent(up));
+        assertEquals(100, gauge.getAngle());
+        assertEquals("3:stop", mEvents.get(mEvents.size() - 1));
+        down.recycle();
+        move.recycle();
+        up.recycle();
+    }
+
+    //Point on the middle of the tick ring of the gauge, half a degree past the given angle, in group coordinates
+    private float x(ProtractorGroup.Gauge gauge, int angle) {
+        return gauge.getBounds().left + mArcLayout.centerX + (float) (ringRadius() * Math.cos(Math.toRadians(angle + 0.5)));
+    }
+
+    private float y(ProtractorGroup.Gauge gauge, int angle) {
+        return gauge.getBounds().top + mArcLayout.centerY - (float) (ringRadius() * Math.sin(Math.toRadians(angle + 0.5)));
+    }
+
+    private double ringRadius() {
+        return mArcLayout.arcRadius + mTickOffset + mTickLength / 2;
+    }
+}
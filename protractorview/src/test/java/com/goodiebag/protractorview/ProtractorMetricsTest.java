@@ -0,0 +1,45 @@
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProtractorMetricsTest {
+
+    @Test
+    public void bucketsArePowersOfTwoMicroseconds() throws Exception {
+        assertEquals(0, ProtractorMetrics.bucketOf(0));
+        assertEquals(0, ProtractorMetrics.bucketOf(1999));
+        assertEquals(1, ProtractorMetrics.bucketOf(2000));
+        assertEquals(1, ProtractorMetrics.bucketOf(3999));
+        assertEquals(2, ProtractorMetrics.bucketOf(4000));
+        assertEquals(10, ProtractorMetrics.bucketOf(1024 * 1000));
+        assertEquals(ProtractorMetrics.BUCKET_COUNT - 1, ProtractorMetrics.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void snapshotReportsTimingsAndCounters() throws Exception {
+        ProtractorMetrics metrics = new ProtractorMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.recordTiming(ProtractorMetrics.Timing.DRAW, 100 * 1000);
+        }
+        metrics.recordTiming(ProtractorMetrics.Timing.DRAW, 10 * 1000 * 1000);
+        metrics.increment(ProtractorMetrics.Counter.PROGRESS_CHANGED);
+        metrics.increment(ProtractorMetrics.Counter.PROGRESS_CHANGED);
+
+        ProtractorMetrics.Snapshot snapshot = metrics.snapshot();
+        assertEquals(100, snapshot.getCount(ProtractorMetrics.Timing.DRAW));
+        assertEquals(0, snapshot.getCount(ProtractorMetrics.Timing.TOUCH));
+        assertEquals(10 * 1000 * 1000, snapshot.getMaxNanos(ProtractorMetrics.Timing.DRAW));
+        //100us falls in [64, 128) us
+        assertEquals(128 * 1000, snapshot.getPercentileNanos(ProtractorMetrics.Timing.DRAW, 50));
+        //10ms falls in [8192, 16384) us
+        assertEquals(16384 * 1000, snapshot.getPercentileNanos(ProtractorMetrics.Timing.DRAW, 100));
+        assertEquals(2, snapshot.getCount(ProtractorMetrics.Counter.PROGRESS_CHANGED));
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().getCount(ProtractorMetrics.Timing.DRAW));
+        //Snapshots are copies
+        assertEquals(100, snapshot.getCount(ProtractorMetrics.Timing.DRAW));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Caching, pooling and thread safety of {@link ProtractorRenderer}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ProtractorRendererTest {
+
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 220;
+
+    private ProtractorRenderer mRenderer;
+
+    @Before
+    public void setUp() throws Exception {
+        mRenderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application));
+    }
+
+    @Test
+    public void renderedReadingsAreCached() throws Exception {
+        Bitmap bitmap = mRenderer.render(WIDTH, HEIGHT, 45);
+        assertEquals(WIDTH, bitmap.getWidth());
+        assertEquals(HEIGHT, bitmap.getHeight());
+        assertSame(bitmap, mRenderer.render(WIDTH, HEIGHT, 45));
+        assertNotSame(bitmap, mRenderer.render(WIDTH, HEIGHT, 46));
+        assertNotSame(bitmap, mRenderer.render(WIDTH + 1, HEIGHT, 45));
+    }
+
+    @Test
+    public void anglesAreClamped() throws Exception {
+        assertSame(mRenderer.render(WIDTH, HEIGHT, 180), mRenderer.render(WIDTH, HEIGHT, 500));
+        assertSame(mRenderer.render(WIDTH, HEIGHT, 0), mRenderer.render(WIDTH, HEIGHT, -20));
+    }
+
+    @Test
+    public void heldBitmapsAreNeverRedrawn() throws Exception {
+        //Room for a single reading
+        ProtractorRenderer renderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application),
+                WIDTH * HEIGHT * 4);
+        Bitmap first = renderer.render(WIDTH, HEIGHT, 10);
+        //Every other reading is evicted and released right away, so the pool keeps being drawn from
+        for (int angle = 20; angle <= 180; angle += 10) {
+            Bitmap other = renderer.render(WIDTH, HEIGHT, angle);
+            assertNotSame(first, other);
+            renderer.release(other);
+        }
+    }
+
+    @Test
+    public void releasedBitmapsAreReused() throws Exception {
+        //Room for a single reading
+        ProtractorRenderer renderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application),
+                WIDTH * HEIGHT * 4);
+        Bitmap first = renderer.render(WIDTH, HEIGHT, 10);
+        renderer.render(WIDTH, HEIGHT, 20);
+        renderer.release(first);
+        assertSame(first, renderer.render(WIDTH, HEIGHT, 30));
+    }
+
+    @Test
+    public void bitmapsHeldTwiceAreReleasedTwice() throws Exception {
+        ProtractorRenderer renderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application),
+                WIDTH * HEIGHT * 4);
+        Bitmap first = renderer.render(WIDTH, HEIGHT, 10);
+        assertSame(first, renderer.render(WIDTH, HEIGHT, 10));
+        renderer.release(first);
+        renderer.render(WIDTH, HEIGHT, 20);
+        assertNotSame(first, renderer.render(WIDTH, HEIGHT, 30));
+        renderer.release(first);
+        assertSame(first, renderer.render(WIDTH, HEIGHT, 40));
+    }
+
+    @Test
+    public void unreleasedBitmapsAreCollectedOnceEvicted() throws Exception {
+        //Room for a single reading
+        ProtractorRenderer renderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application),
+                WIDTH * HEIGHT * 4);
+        WeakReference<Bitmap> first = renderWeakly(renderer, 10);
+        WeakReference<Bitmap> second = renderWeakly(renderer, 20);
+        for (int i = 0; i < 20 && first.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(first.get());
+        //Still cached
+        assertNotNull(second.get());
+    }
+
+    private static WeakReference<Bitmap> renderWeakly(ProtractorRenderer renderer, int angle) {
+        return new WeakReference<>(renderer.render(WIDTH, HEIGHT, angle));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void releasingAnUnheldBitmapFails() throws Exception {
+        Bitmap bitmap = mRenderer.render(WIDTH, HEIGHT, 10);
+        mRenderer.release(bitmap);
+        mRenderer.release(bitmap);
+    }
+
+    @Test
+    public void rendersFromWorkerThreads() throws Exception {
+        //Room for every reading
+        final ProtractorRenderer renderer = new ProtractorRenderer(new ProtractorView(RuntimeEnvironment.application),
+                37 * WIDTH * HEIGHT * 4);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Bitmap>> results = new ArrayList<>();
+            for (int angle = 0; angle <= 180; angle += 5) {
+                final int reading = angle;
+                results.add(executor.submit(new Callable<Bitmap>() {
+                    @Override
+                    public Bitmap call() throws Exception {
+                        return renderer.render(WIDTH, HEIGHT, reading);
+                    }
+                }));
+            }
+            int angle = 0;
+            for (Future<Bitmap> result : results) {
+                assertSame(result.get(), renderer.render(WIDTH, HEIGHT, angle));
+                angle += 5;
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
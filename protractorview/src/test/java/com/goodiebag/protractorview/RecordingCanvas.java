@@ -0,0 +1,350 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+/**
+ * Canvas which counts the operations issued to it instead of drawing, to keep an eye on the cost of a frame.
+ * Every call is tallied per {@link Op}, {@link #endFrame()} returns the histogram of the frame and starts a new one.
+ * Draw-call budgets are enforced with {@link Frame#assertAtMost(Op, int)} and friends.
+ */
+class RecordingCanvas extends Canvas {
+
+    enum Op {
+        SAVE, RESTORE, TRANSLATE, SCALE, ROTATE, CONCAT, CLIP,
+        DRAW_ARC, DRAW_LINE, DRAW_LINES, DRAW_TEXT, DRAW_BITMAP,
+        DRAW_OVAL, DRAW_RECT, DRAW_ROUND_RECT, DRAW_CIRCLE, DRAW_PATH;
+
+        boolean isDraw() {
+            return ordinal() >= DRAW_ARC.ordinal();
+        }
+
+        boolean isMatrix() {
+            return this == TRANSLATE || this == SCALE || this == ROTATE || this == CONCAT;
+        }
+    }
+
+    private int[] mCounts = new int[Op.values().length];
+    //Line segments drawn by drawLine and drawLines
+    private int mLines;
+    private int mSaveCount = 1;
+
+    /**
+     * Operations recorded during one frame.
+     */
+    static final class Frame {
+        private final int[] mCounts;
+        private final int mLines;
+        private final int mUnbalancedSaves;
+
+        private Frame(int[] counts, int lines, int unbalancedSaves) {
+            mCounts = counts;
+            mLines = lines;
+            mUnbalancedSaves = unbalancedSaves;
+        }
+
+        int count(Op op) {
+            return mCounts[op.ordinal()];
+        }
+
+        /**
+         * @return number of draw operations, whatever they draw
+         */
+        int drawCalls() {
+            int calls = 0;
+            for (Op op : Op.values()) {
+                if (op.isDraw()) {
+                    calls += count(op);
+                }
+            }
+            return calls;
+        }
+
+        int matrixOps() {
+            int ops = 0;
+            for (Op op : Op.values()) {
+                if (op.isMatrix()) {
+                    ops += count(op);
+                }
+            }
+            return ops;
+        }
+
+        /**
+         * @return number of line segments drawn, one drawLines call usually draws many
+         */
+        int lines() {
+            return mLines;
+        }
+
+        Frame assertAtMost(Op op, int budget) {
+            if (count(op) > budget) {
+                throw new AssertionError(op + " budget of " + budget + " exceeded: " + this);
+            }
+            return this;
+        }
+
+        Frame assertDrawCallsAtMost(int budget) {
+            if (drawCalls() > budget) {
+                throw new AssertionError("draw call budget of " + budget + " exceeded: " + this);
+            }
+            return this;
+        }
+
+        Frame assertMatrixOpsAtMost(int budget) {
+            if (matrixOps() > budget) {
+                throw new AssertionError("matrix operation budget of " + budget + " exceeded: " + this);
+            }
+            return this;
+        }
+
+        /**
+         * Checks every save is matched by a restore within the frame.
+         */
+        Frame assertBalanced() {
+            if (mUnbalancedSaves != 0) {
+                throw new AssertionError(mUnbalancedSaves + " unbalanced save(s): " + this);
+            }
+            return this;
+        }
+
+        /**
+         * @return the non zero counts, e.g. {SAVE=3, RESTORE=3, DRAW_TEXT=13, lines=24}
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder("{");
+            for (Op op : Op.values()) {
+                if (count(op) > 0) {
+                    builder.append(op).append('=').append(count(op)).append(", ");
+                }
+            }
+            return builder.append("lines=").append(mLines).append('}').toString();
+        }
+    }
+
+    /**
+     * @return the operations recorded since the previous call, or since the canvas was created
+     */
+    Frame endFrame() {
+        Frame frame = new Frame(mCounts, mLines, mSaveCount - 1);
+        mCounts = new int[Op.values().length];
+        mLines = 0;
+        mSaveCount = 1;
+        return frame;
+    }
+
+    private void record(Op op) {
+        mCounts[op.ordinal()]++;
+    }
+
+    @Override
+    public int save() {
+        record(Op.SAVE);
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayer(RectF bounds, Paint paint, int saveFlags) {
+        record(Op.SAVE);
+        return mSaveCount++;
+    }
+
+    @Override
+    public int saveLayerAlpha(RectF bounds, int alpha, int saveFlags) {
+        record(Op.SAVE);
+        return mSaveCount++;
+    }
+
+    @Override
+    public void restore() {
+        record(Op.RESTORE);
+        mSaveCount--;
+    }
+
+    @Override
+    public void restoreToCount(int saveCount) {
+        record(Op.RESTORE);
+        mSaveCount = saveCount;
+    }
+
+    @Override
+    public int getSaveCount() {
+        return mSaveCount;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        record(Op.TRANSLATE);
+    }
+
+    @Override
+    public void scale(float sx, float sy) {
+        record(Op.SCALE);
+    }
+
+    @Override
+    public void rotate(float degrees) {
+        record(Op.ROTATE);
+    }
+
+    @Override
+    public void concat(Matrix matrix) {
+        record(Op.CONCAT);
+    }
+
+    @Override
+    public boolean clipRect(RectF rect, Region.Op op) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(Rect rect, Region.Op op) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(RectF rect) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(Rect rect) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(float left, float top, float right, float bottom) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public boolean clipRect(int left, int top, int right, int bottom) {
+        record(Op.CLIP);
+        return true;
+    }
+
+    @Override
+    public void drawArc(RectF oval, float startAngle, float sweepAngle, boolean useCenter, Paint paint) {
+        record(Op.DRAW_ARC);
+    }
+
+    @Override
+    public void drawLine(float startX, float startY, float stopX, float stopY, Paint paint) {
+        record(Op.DRAW_LINE);
+        mLines++;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, Paint paint) {
+        record(Op.DRAW_LINES);
+        mLines += count / 4;
+    }
+
+    @Override
+    public void drawLines(float[] pts, Paint paint) {
+        record(Op.DRAW_LINES);
+        mLines += pts.length / 4;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int count, float x, float y, Paint paint) {
+        record(Op.DRAW_TEXT);
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        record(Op.DRAW_TEXT);
+    }
+
+    @Override
+    public void drawText(String text, int start, int end, float x, float y, Paint paint) {
+        record(Op.DRAW_TEXT);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        record(Op.DRAW_BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        record(Op.DRAW_BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        record(Op.DRAW_BITMAP);
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Matrix matrix, Paint paint) {
+        record(Op.DRAW_BITMAP);
+    }
+
+    @Override
+    public void drawOval(RectF oval, Paint paint) {
+        record(Op.DRAW_OVAL);
+    }
+
+    @Override
+    public void drawRect(RectF rect, Paint paint) {
+        record(Op.DRAW_RECT);
+    }
+
+    @Override
+    public void drawRect(Rect r, Paint paint) {
+        record(Op.DRAW_RECT);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        record(Op.DRAW_RECT);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        record(Op.DRAW_ROUND_RECT);
+    }
+
+    @Override
+    public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        record(Op.DRAW_CIRCLE);
+    }
+
+    @Override
+    public void drawPath(Path path, Paint paint) {
+        record(Op.DRAW_PATH);
+    }
+}
@@ -0,0 +1,151 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.graphics.Color;
+import android.graphics.drawable.ShapeDrawable;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import com.goodiebag.protractorview.ViewFixtures.CountingProtractorView;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Redraws skipped for unchanged state and capped by {@link ProtractorView#setMaxFrameRate(int)}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RedrawGovernorTest {
+
+    private static final int SIZE = 600;
+
+    private CountingProtractorView mView;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = ViewFixtures.countingProtractorView(RuntimeEnvironment.application, SIZE);
+        mView.setAngle(45);
+        mView.resetCounts();
+    }
+
+    @Test
+    public void unchangedStateIsNotRedrawn() throws Exception {
+        mView.setAngle(45);
+        mView.setArcColor(mView.getArcColor());
+        mView.setEnabled(mView.isEnabled());
+        assertEquals(0, mView.invalidates);
+
+        //A thumb without states looks the same pressed or not
+        ShapeDrawable thumb = new ShapeDrawable();
+        thumb.setIntrinsicWidth(20);
+        thumb.setIntrinsicHeight(20);
+        mView.setThumb(thumb);
+        mView.invalidates = 0;
+        mView.setPressed(true);
+        mView.setPressed(false);
+        assertEquals(0, mView.invalidates);
+    }
+
+    @Test
+    public void equalStyleIsNotRedrawnOnceNoLongerInterned() throws Exception {
+        mView.setArcColor(Color.RED);
+        ProtractorStyle.clearCache();
+        mView.resetCounts();
+        mView.setArcColor(Color.RED);
+        mView.edit().setArcColor(Color.RED).apply();
+        assertEquals(0, mView.invalidates);
+    }
+
+    @Test
+    public void changedStateIsRedrawn() throws Exception {
+        mView.setAngle(46);
+        assertEquals(1, mView.invalidates);
+        mView.setArcColor(Color.RED);
+        assertEquals(2, mView.invalidates);
+    }
+
+    @Test
+    public void cappedChangesAreFoldedIntoOneFrame() throws Exception {
+        mView.setMaxFrameRate(30);
+        mView.setAngle(50);
+        assertEquals(50, mView.getDrawAngle());
+        assertEquals(1, mView.invalidates);
+
+        //Within the same frame slot: listeners are told right away, the drawing waits
+        mView.setAngle(60);
+        mView.setAngle(70);
+        assertEquals(70, mView.getAngle());
+        assertEquals(3, mView.progressChanges);
+        assertEquals(50, mView.getDrawAngle());
+        assertEquals(1, mView.invalidates);
+
+        ShadowLooper.idleMainLooper(40, TimeUnit.MILLISECONDS);
+        assertEquals(70, mView.getDrawAngle());
+        assertEquals(2, mView.invalidates);
+
+        //Uncapping draws right away again
+        mView.setMaxFrameRate(0);
+        mView.setAngle(80);
+        assertEquals(80, mView.getDrawAngle());
+    }
+
+    @Test
+    public void endOfTouchDrawsTheFinalAngleRightAway() throws Exception {
+        mView.setMaxFrameRate(10);
+        ArcLayout arcLayout = new ArcLayout();
+        arcLayout.measure(SIZE, SIZE, mView.getTickOffset(), mView.getTickLength(),
+                mView.getResources().getDisplayMetrics().density);
+        double radius = arcLayout.arcRadius + mView.getTickOffset() + mView.getTickLength() / 2;
+        long now = SystemClock.uptimeMillis();
+        float[] x = new float[3];
+        float[] y = new float[3];
+        int[] angles = {90, 100, 120};
+        for (int i = 0; i < angles.length; i++) {
+            x[i] = arcLayout.centerX + (float) (radius * Math.cos(Math.toRadians(angles[i] + 0.5)));
+            y[i] = arcLayout.centerY - (float) (radius * Math.sin(Math.toRadians(angles[i] + 0.5)));
+        }
+        dispatch(MotionEvent.obtain(now, now, MotionEvent.ACTION_DOWN, x[0], y[0], 0));
+        dispatch(MotionEvent.obtain(now, now + 5, MotionEvent.ACTION_MOVE, x[1], y[1], 0));
+        dispatch(MotionEvent.obtain(now, now + 10, MotionEvent.ACTION_MOVE, x[2], y[2], 0));
+        assertEquals(120, mView.getAngle());
+        assertTrue(mView.getDrawAngle() < 120);
+
+        dispatch(MotionEvent.obtain(now, now + 15, MotionEvent.ACTION_UP, x[2], y[2], 0));
+        assertEquals(120, mView.getDrawAngle());
+    }
+
+    private void dispatch(MotionEvent event) {
+        mView.onTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.MotionEvent;
+
+import org.robolectric.annotation.Implementation;
+import org.robolectric.annotation.Implements;
+import org.robolectric.shadows.ShadowMotionEvent;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.Arrays;
+
+/**
+ * Robolectric's MotionEvent shadow with the batched samples it lacks: {@link MotionEvent#addBatch} moves the
+ * current sample into the history, which the historical getters then read back. Single pointer only.
+ * Enable it with {@code @Config(shadows = ShadowBatchedMotionEvent.class)}.
+ */
+@Implements(MotionEvent.class)
+public class ShadowBatchedMotionEvent extends ShadowMotionEvent {
+
+    private long[] mHistoricalTimes = new long[4];
+    private float[] mHistoricalX = new float[4];
+    private float[] mHistoricalY = new float[4];
+    private int mHistorySize;
+
+    @Implementation
+    public final void addBatch(long eventTime, float x, float y, float pressure, float size, int metaState) {
+        if (mHistorySize == mHistoricalTimes.length) {
+            int capacity = mHistorySize * 2;
+            mHistoricalTimes = Arrays.copyOf(mHistoricalTimes, capacity);
+            mHistoricalX = Arrays.copyOf(mHistoricalX, capacity);
+            mHistoricalY = Arrays.copyOf(mHistoricalY, capacity);
+        }
+        mHistoricalTimes[mHistorySize] = getEventTime();
+        mHistoricalX[mHistorySize] = getX();
+        mHistoricalY[mHistorySize] = getY();
+        mHistorySize++;
+        setLocation(x, y);
+        ReflectionHelpers.setField(ShadowMotionEvent.class, this, "eventTime", eventTime);
+    }
+
+    @Implementation
+    public final int getHistorySize() {
+        return mHistorySize;
+    }
+
+    @Implementation
+    public final long getHistoricalEventTime(int pos) {
+        return mHistoricalTimes[checkPosition(pos)];
+    }
+
+    @Implementation
+    public final float getHistoricalX(int pos) {
+        return mHistoricalX[checkPosition(pos)];
+    }
+
+    @Implementation
+    public final float getHistoricalY(int pos) {
+        return mHistoricalY[checkPosition(pos)];
+    }
+
+    private int checkPosition(int pos) {
+        if (pos < 0 || pos >= mHistorySize) {
+            throw new IllegalArgumentException("pos out of range: " + pos);
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.app.Activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Angles submitted through {@link ProtractorView#submitAngle(int)}: the latest wins, at most one frame is pending
+ * and the listener fires once per applied change.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class SubmitAngleTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int SUBMISSIONS = 250;
+
+    private ProtractorView mView;
+    private final List<Integer> mChanges = new ArrayList<Integer>();
+
+    @Before
+    public void setUp() throws Exception {
+        //Attached, so animation frames go through the Choreographer, and paused, so they only run when asked to
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        mView = new ProtractorView(activity);
+        activity.setContentView(mView);
+        ShadowLooper.idleMainLooper();
+        ShadowLooper.pauseMainLooper();
+        mView.setOnProtractorViewChangeListener(new ProtractorView.OnProtractorViewChangeListener() {
+            @Override
+            public void onProgressChanged(ProtractorView protractorView, int progress, boolean fromUser) {
+                assertEquals(false, fromUser);
+                mChanges.add(progress);
+            }
+
+            @Override
+            public void onStartTrackingTouch(ProtractorView protractorView) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(ProtractorView protractorView) {
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        ShadowLooper.unPauseMainLooper();
+    }
+
+    @Test
+    public void latestAngleFromSeveralThreadsWinsInOneFrame() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            final int offset = p;
+            producers[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < SUBMISSIONS; i++) {
+                        mView.submitAngle((i * PRODUCERS + offset) % 170);
+                    }
+                }
+            });
+            producers[p].start();
+        }
+        start.countDown();
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        mView.submitAngle(175);
+
+        assertEquals(1, pendingFrames());
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[175]", mChanges.toString());
+        assertEquals(175, mView.getAngle());
+        assertEquals(0, pendingFrames());
+    }
+
+    @Test
+    public void listenerFiresOncePerAppliedChange() throws Exception {
+        mView.submitAngle(30);
+        mView.submitAngle(40);
+        ShadowLooper.runUiThreadTasks();
+        //Unchanged, nothing to tell
+        mView.submitAngle(40);
+        ShadowLooper.runUiThreadTasks();
+        mView.submitAngle(50);
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[40, 50]", mChanges.toString());
+    }
+
+    @Test
+    public void outOfRangeAnglesAreClampedNotDropped() throws Exception {
+        mView.submitAngle(90);
+        ShadowLooper.runUiThreadTasks();
+        //Integer.MIN_VALUE is also what marks nothing submitted
+        mView.submitAngle(Integer.MIN_VALUE);
+        ShadowLooper.runUiThreadTasks();
+        mView.submitAngle(Integer.MAX_VALUE);
+        ShadowLooper.runUiThreadTasks();
+        assertEquals("[90, 0, 180]", mChanges.toString());
+    }
+
+    private int pendingFrames() {
+        return Robolectric.getForegroundThreadScheduler().size();
+    }
+}
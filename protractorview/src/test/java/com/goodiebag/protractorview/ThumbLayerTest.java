@@ -0,0 +1,126 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import com.goodiebag.protractorview.ViewFixtures.CountingProtractorView;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * The thumb and the progress arc drawn by child views, see {@link ProtractorView#setThumbLayerEnabled(boolean)}.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ThumbLayerTest {
+
+    private static final int SIZE = 600;
+
+    private CountingProtractorView mView;
+    private View mProgressView;
+    private View mThumbView;
+    private final ArcLayout mArcLayout = new ArcLayout();
+    private final NoOpCanvas mCanvas = new NoOpCanvas();
+    private int mRecordedInvalidates;
+
+    @Before
+    public void setUp() throws Exception {
+        mView = ViewFixtures.countingProtractorView(RuntimeEnvironment.application, SIZE);
+        mView.setThumbLayerEnabled(true);
+        ViewFixtures.layOut(mView, SIZE, SIZE);
+        assertEquals(2, mView.getChildCount());
+        mProgressView = mView.getChildAt(0);
+        mThumbView = mView.getChildAt(1);
+        mArcLayout.measure(SIZE, SIZE, mView.getTickOffset(), mView.getTickLength(),
+                mView.getResources().getDisplayMetrics().density);
+        mView.setAngle(50);
+        mView.resetCounts();
+        shadowOf(mProgressView).clearWasInvalidated();
+        shadowOf(mThumbView).clearWasInvalidated();
+    }
+
+    @Test
+    public void thumbOnlyMoveDoesNotRedrawTheBody() throws Exception {
+        //No tick or label between 50 and 55 degrees
+        mView.setAngle(55);
+        drawFrame();
+        assertEquals(0, mView.draws);
+        //The progress arc is re-recorded, the thumb view is only moved
+        assertTrue(shadowOf(mProgressView).wasInvalidated());
+        assertFalse(shadowOf(mThumbView).wasInvalidated());
+        assertThumbAt(55);
+    }
+
+    @Test
+    public void highlightChangeRedrawsTheBody() throws Exception {
+        //The tick at 60 degrees gets highlighted
+        mView.setAngle(62);
+        drawFrame();
+        assertEquals(1, mView.draws);
+        assertThumbAt(62);
+    }
+
+    @Test
+    public void thumbFollowsEnabledState() throws Exception {
+        mView.setEnabled(false);
+        assertEquals(View.INVISIBLE, mThumbView.getVisibility());
+        mView.setEnabled(true);
+        assertEquals(View.VISIBLE, mThumbView.getVisibility());
+        drawFrame();
+        assertEquals(0, mView.draws);
+    }
+
+    @Test
+    public void disablingRemovesTheChildViews() throws Exception {
+        mView.setThumbLayerEnabled(false);
+        assertEquals(0, mView.getChildCount());
+        assertFalse(mView.isThumbLayerEnabled());
+    }
+
+    /**
+     * Re-records the body the way the hardware renderer does, only if the view invalidated itself since the last
+     * frame. Moving or invalidating a child view only touches the child's own display list.
+     */
+    private void drawFrame() {
+        if (mView.invalidates > mRecordedInvalidates) {
+            mView.onDraw(mCanvas);
+        }
+        mRecordedInvalidates = mView.invalidates;
+    }
+
+    private void assertThumbAt(int angle) {
+        float centerX = (mThumbView.getLeft() + mThumbView.getRight()) / 2f + mThumbView.getTranslationX();
+        float centerY = (mThumbView.getTop() + mThumbView.getBottom()) / 2f + mThumbView.getTranslationY();
+        assertEquals(mArcLayout.centerX + mArcLayout.thumbX(angle), centerX, 1f);
+        assertEquals(mArcLayout.centerY - mArcLayout.thumbY(angle), centerY, 1f);
+    }
+}
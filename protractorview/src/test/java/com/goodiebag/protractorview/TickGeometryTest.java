@@ -0,0 +1,100 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tick level of detail of {@link TickGeometry}.
+ */
+public class TickGeometryTest {
+
+    private static final int MAX = 180;
+    private static final int TICK_OFFSET = 12;
+    private static final int TICK_LENGTH = 10;
+    private static final float MIN_TICK_GAP = 8;
+
+    @Test
+    public void sparseTicksAreAllKept() throws Exception {
+        TickGeometry geometry = new TickGeometry();
+        for (int ticksBetweenLabel = 0; ticksBetweenLabel <= 3; ticksBetweenLabel++) {
+            geometry.rebuild(500, 500, 500, TICK_OFFSET, TICK_LENGTH, 15, ticksBetweenLabel, MAX, MIN_TICK_GAP);
+            int labels = 0;
+            int ticks = 0;
+            int count = ticksBetweenLabel;
+            for (int angle = 0; angle <= MAX; angle += 15) {
+                if (count == ticksBetweenLabel) {
+                    assertEquals(angle, geometry.labelAngles[labels++]);
+                    count = 0;
+                } else {
+                    assertEquals(angle, geometry.tickAngles[ticks++]);
+                    count++;
+                }
+            }
+            assertEquals(labels, geometry.labelCount);
+            assertEquals(ticks, geometry.tickCount);
+        }
+    }
+
+    @Test
+    public void denseTicksKeepTheMinimumGap() throws Exception {
+        TickGeometry geometry = new TickGeometry();
+        int radius = 60;
+        geometry.rebuild(radius, radius, radius, TICK_OFFSET, TICK_LENGTH, 1, 3, MAX, MIN_TICK_GAP);
+        double startRadius = radius + TICK_OFFSET;
+        //Labels keep their angles
+        assertEquals(MAX / 4 + 1, geometry.labelCount);
+        for (int i = 0; i < geometry.labelCount; i++) {
+            assertEquals(i * 4, geometry.labelAngles[i]);
+        }
+        //Ticks only go where they clear the previous and the next label
+        int step = TickGeometry.tickStep(startRadius, 1, MIN_TICK_GAP);
+        assertTrue(step > 1);
+        assertTrue(geometry.tickCount < MAX - geometry.labelCount + 1);
+        for (int i = 0; i < geometry.tickCount; i++) {
+            int fromLabel = geometry.tickAngles[i] % 4;
+            assertTrue(fromLabel >= step && 4 - fromLabel >= step);
+        }
+    }
+
+    @Test
+    public void keptTicksAreFarEnoughApart() throws Exception {
+        TickGeometry geometry = new TickGeometry();
+        int radius = 80;
+        geometry.rebuild(radius, radius, radius, TICK_OFFSET, TICK_LENGTH, 1, 3, MAX, 2.5f);
+        for (int i = 1; i < geometry.tickCount; i++) {
+            float dx = geometry.tickPoints[i * 4] - geometry.tickPoints[(i - 1) * 4];
+            float dy = geometry.tickPoints[i * 4 + 1] - geometry.tickPoints[(i - 1) * 4 + 1];
+            assertTrue(Math.sqrt(dx * dx + dy * dy) >= 2.5f - 0.1f);
+        }
+    }
+
+    @Test
+    public void tickStepGrowsAsTheArcShrinks() throws Exception {
+        assertEquals(1, TickGeometry.tickStep(600, 1, MIN_TICK_GAP));
+        assertEquals(2, TickGeometry.tickStep(300, 1, MIN_TICK_GAP));
+        assertEquals(1, TickGeometry.tickStep(100, 5, MIN_TICK_GAP));
+        assertEquals(Integer.MAX_VALUE, TickGeometry.tickStep(0, 5, MIN_TICK_GAP));
+    }
+}
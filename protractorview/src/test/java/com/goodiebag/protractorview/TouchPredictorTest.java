@@ -0,0 +1,90 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Extrapolation and clamping of {@link TouchPredictor}.
+ */
+public class TouchPredictorTest {
+
+    @Test
+    public void singleSampleIsReturnedAsIs() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        predictor.add(100, 42.5);
+        assertEquals(42.5, predictor.predict(116), 1e-9);
+    }
+
+    @Test
+    public void constantVelocityIsExtrapolated() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        //0.5 degree per millisecond
+        for (int i = 0; i < 5; i++) {
+            predictor.add(100 + i * 8, 20 + i * 4);
+        }
+        assertEquals(36 + 8, predictor.predict(132 + 16), 1e-9);
+    }
+
+    @Test
+    public void horizonIsCapped() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        predictor.add(0, 10);
+        predictor.add(10, 20);
+        assertEquals(20 + TouchPredictor.MAX_HORIZON_MILLIS, predictor.predict(10 + 1000), 1e-9);
+    }
+
+    @Test
+    public void predictionIsClampedToTheArc() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        predictor.add(0, 160);
+        predictor.add(8, 176);
+        assertEquals(180, predictor.predict(24), 1e-9);
+
+        predictor.reset();
+        predictor.add(0, 20);
+        predictor.add(8, 4);
+        assertEquals(0, predictor.predict(24), 1e-9);
+    }
+
+    @Test
+    public void oldSamplesAreIgnored() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        //Fast motion long ago, then the finger rests
+        predictor.add(0, 0);
+        predictor.add(10, 100);
+        predictor.add(500, 100);
+        predictor.add(508, 100);
+        assertEquals(100, predictor.predict(524), 1e-9);
+    }
+
+    @Test
+    public void ringBufferKeepsTheNewestSamples() throws Exception {
+        TouchPredictor predictor = new TouchPredictor(180);
+        for (int i = 0; i < TouchPredictor.CAPACITY * 3; i++) {
+            predictor.add(i * 4, i);
+        }
+        long last = (TouchPredictor.CAPACITY * 3 - 1) * 4;
+        assertEquals(TouchPredictor.CAPACITY * 3 - 1 + 2, predictor.predict(last + 8), 1e-9);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.view.MotionEvent;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Synthetic touch traces checked in under src/test/resources/traces, replayed by {@link TouchTraceReplayTest}.
+ * Gestures are laid out on the arc of a 360dp square protractor with the default tick dimensions and sampled
+ * every 4ms, two samples per move event as on a 120Hz touch panel reporting at 60Hz.
+ * Regenerate the files with {@link #main(String[])} after changing a gesture, {@link TouchTraceTest} checks
+ * that the checked in files match.
+ */
+final class TouchTraceFixtures {
+
+    static final String[] NAMES = {"fast_flick", "jitter_near_0", "jitter_near_180", "off_arc_drag"};
+
+    private static final float SIZE = 360;
+    private static final float TICK_OFFSET = 12;
+    private static final float TICK_LENGTH = 10;
+    private static final long SAMPLE_MILLIS = 4;
+    private static final int SAMPLES_PER_MOVE = 2;
+
+    private final ArcLayout mArcLayout = new ArcLayout();
+    private final TouchTrace.Builder mBuilder = new TouchTrace.Builder(SIZE, SIZE, TICK_OFFSET, TICK_LENGTH, false);
+    //Radius running along the middle of the ticks
+    private final float mRingRadius;
+    private long mTime = 1000;
+    private int mPendingSamples;
+    private float mLastX;
+    private float mLastY;
+
+    private TouchTraceFixtures() {
+        mArcLayout.measure((int) SIZE, (int) SIZE, (int) TICK_OFFSET, (int) TICK_LENGTH, 1);
+        mRingRadius = mArcLayout.arcRadius + TICK_OFFSET + TICK_LENGTH / 2;
+    }
+
+    static TouchTrace create(String name) {
+        TouchTraceFixtures fixtures = new TouchTraceFixtures();
+        if ("fast_flick".equals(name)) {
+            fixtures.fastFlick();
+        } else if ("jitter_near_0".equals(name)) {
+            fixtures.jitter(0, 1);
+        } else if ("jitter_near_180".equals(name)) {
+            fixtures.jitter(180, -1);
+        } else if ("off_arc_drag".equals(name)) {
+            fixtures.offArcDrag();
+        } else {
+            throw new IllegalArgumentException(name);
+        }
+        return fixtures.mBuilder.build();
+    }
+
+    /**
+     * Final angle a view ends at after replaying the named trace.
+     */
+    static int finalAngle(String name) {
+        if ("fast_flick".equals(name)) {
+            return 160;
+        } else if ("jitter_near_0".equals(name)) {
+            return 0;
+        } else if ("jitter_near_180".equals(name)) {
+            return 180;
+        } else if ("off_arc_drag".equals(name)) {
+            return 120;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    //From 20 to 160 degrees in about 100ms, ending half a degree past 160 so truncation lands on it
+    private void fastFlick() {
+        down(20, mRingRadius);
+        for (int i = 1; i <= 24; i++) {
+            move(20 + 140.5 * i / 24, mRingRadius);
+        }
+        up();
+    }
+
+    //Back and forth across the end of the arc with some radial noise, ending just past it
+    private void jitter(int end, int inwards) {
+        Random random = new Random(end + 1);
+        down(end + inwards * 5, mRingRadius);
+        for (int i = 0; i < 40; i++) {
+            double angle = end + inwards * (random.nextDouble() * 10 - 5);
+            move(angle, mRingRadius + (float) (random.nextDouble() * 6 - 3));
+        }
+        move(end - inwards * 3, mRingRadius);
+        up();
+    }
+
+    //Along the arc to 120, then off it on both sides of the ring, only crossing it back at 120
+    private void offArcDrag() {
+        down(90, mRingRadius);
+        for (int i = 1; i <= 10; i++) {
+            move(90 + 30.5 * i / 10, mRingRadius);
+        }
+        float outside = mArcLayout.arcRadius + TICK_OFFSET + TICK_LENGTH + 40;
+        float inside = mArcLayout.arcRadius / 3f;
+        for (int i = 1; i <= 5; i++) {
+            move(120.5, mRingRadius + (outside - mRingRadius) * i / 5);
+        }
+        for (int i = 1; i <= 10; i++) {
+            move(120.5 - 60 * i / 10, outside);
+        }
+        for (int i = 1; i <= 10; i++) {
+            move(60.5 + 60 * i / 10, outside);
+        }
+        for (int i = 1; i <= 10; i++) {
+            move(120.5, outside + (inside - outside) * i / 10);
+        }
+        for (int i = 1; i <= 10; i++) {
+            move(120.5 - 60 * i / 10, inside);
+        }
+        up();
+    }
+
+    private void down(double angle, float radius) {
+        mBuilder.beginEvent(MotionEvent.ACTION_DOWN);
+        sample(angle, radius);
+        mPendingSamples = 0;
+    }
+
+    //Samples are batched into move events, the event is started with its first sample
+    private void move(double angle, float radius) {
+        if (mPendingSamples == 0) {
+            mBuilder.beginEvent(MotionEvent.ACTION_MOVE);
+        }
+        mTime += SAMPLE_MILLIS;
+        sample(angle, radius);
+        mPendingSamples = (mPendingSamples + 1) % SAMPLES_PER_MOVE;
+    }
+
+    private void up() {
+        mBuilder.beginEvent(MotionEvent.ACTION_UP);
+        mTime += SAMPLE_MILLIS;
+        mBuilder.addSample(mTime, mLastX, mLastY);
+    }
+
+    private void sample(double angle, float radius) {
+        mLastX = mArcLayout.centerX + (float) (radius * Math.cos(Math.toRadians(angle)));
+        mLastY = mArcLayout.centerY - (float) (radius * Math.sin(Math.toRadians(angle)));
+        mBuilder.addSample(mTime, mLastX, mLastY);
+    }
+
+    /**
+     * Writes every fixture into the given directory, src/test/resources/traces by default.
+     */
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "src/test/resources/traces");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        for (String name : NAMES) {
+            OutputStream out = new FileOutputStream(new File(directory, name + ".trace"));
+            try {
+                create(name).write(out);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.view.MotionEvent;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays the checked in touch traces, see {@link TouchTraceFixtures}, and checks the angles the listener gets
+ * against the angles of the touched samples.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class TouchTraceReplayTest {
+
+    @Test
+    public void fixturesReplayDeterministically() throws Exception {
+        Context context = RuntimeEnvironment.application;
+        for (String name : TouchTraceFixtures.NAMES) {
+            TouchTrace trace = load(name);
+            ProtractorView view = new ProtractorView(context);
+            TouchTraceReplayer.Result first = TouchTraceReplayer.replay(trace, view);
+            TouchTraceReplayer.Result second = TouchTraceReplayer.replay(trace, new ProtractorView(context));
+
+            assertTrue(name, first.batched);
+            assertEquals(name, TouchTraceFixtures.finalAngle(name), first.finalAngle);
+            //Only the last touched sample of each event is passed on
+            assertArrayEquals(name, expectedAngles(trace, view, true), first.progressAngles());
+            assertArrayEquals(name, first.progressAngles(), second.progressAngles());
+        }
+    }
+
+    @Test
+    public void unbatchedSamplesUpdateTheAngleOneByOne() throws Exception {
+        Context context = RuntimeEnvironment.application;
+        for (String name : TouchTraceFixtures.NAMES) {
+            TouchTrace trace = load(name);
+            ProtractorView view = new ProtractorView(context);
+            TouchTraceReplayer.Result result = TouchTraceReplayer.replay(trace, view, false);
+
+            assertFalse(name, result.batched);
+            assertEquals(name, TouchTraceFixtures.finalAngle(name), result.finalAngle);
+            int[] expected = expectedAngles(trace, view, false);
+            assertArrayEquals(name, expected, result.progressAngles());
+            assertTrue(name, expected.length > expectedAngles(trace, view, true).length);
+        }
+    }
+
+    @Test
+    public void recordedEventsReplayToTheSameAngle() throws Exception {
+        Context context = RuntimeEnvironment.application;
+        TouchTrace fixture = load("off_arc_drag");
+        ProtractorView view = new ProtractorView(context);
+        TouchTraceRecorder recorder = new TouchTraceRecorder();
+        view.setTouchTraceRecorder(recorder);
+        TouchTraceReplayer.Result original = TouchTraceReplayer.replay(fixture, view);
+
+        TouchTrace recorded = recorder.finish();
+        //Every sample made it, batched or not
+        assertEquals(fixture.getSampleCount(), recorded.getSampleCount());
+        assertEquals(0, recorder.getEventCount());
+        TouchTraceReplayer.Result replayed = TouchTraceReplayer.replay(recorded, new ProtractorView(context));
+        assertEquals(original.finalAngle, replayed.finalAngle);
+        assertEquals(original.progressChanges, replayed.progressChanges);
+    }
+
+    /**
+     * Angles the listener of the view the trace was replayed into should get: for every dispatched event,
+     * the angle of its last sample on the touch ring.
+     * Events are dispatched with all their samples when batched, one sample at a time otherwise.
+     */
+    private static int[] expectedAngles(TouchTrace trace, ProtractorView view, boolean batched) {
+        float density = view.getResources().getDisplayMetrics().density;
+        int tickOffset = TouchTraceReplayer.pixelSize(trace.tickOffset, density);
+        int tickLength = TouchTraceReplayer.pixelSize(trace.tickLength, density);
+        ArcLayout arcLayout = new ArcLayout();
+        arcLayout.measure(TouchTraceReplayer.pixelSize(trace.width, density),
+                TouchTraceReplayer.pixelSize(trace.height, density), tickOffset, tickLength, density);
+        Drawable thumb = view.getThumb();
+        arcLayout.updateTouchIgnoreRadius(trace.touchInside, thumb.getIntrinsicWidth() / 2,
+                thumb.getIntrinsicHeight() / 2);
+
+        int[] angles = new int[trace.getSampleCount()];
+        int count = 0;
+        for (int event = 0; event < trace.eventCount; event++) {
+            int action = trace.actions[event];
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                continue;
+            }
+            int touched = -1;
+            for (int i = trace.sampleStart(event); i < trace.sampleEnd[event]; i++) {
+                float x = TouchTraceReplayer.toPixels(trace.x[i], density);
+                float y = TouchTraceReplayer.toPixels(trace.y[i], density);
+                if (!arcLayout.isOutsideTouchRing(x, y, tickOffset, tickLength)) {
+                    touched = i;
+                    if (!batched) {
+                        angles[count++] = angleAt(arcLayout, x, y);
+                    }
+                }
+            }
+            if (batched && touched >= 0) {
+                angles[count++] = angleAt(arcLayout, TouchTraceReplayer.toPixels(trace.x[touched], density),
+                        TouchTraceReplayer.toPixels(trace.y[touched], density));
+            }
+        }
+        return Arrays.copyOf(angles, count);
+    }
+
+    private static int angleAt(ArcLayout arcLayout, float x, float y) {
+        int angle = (int) arcLayout.touchDegreesAt(x, y);
+        return (angle > 180) ? 180 : (angle < 0) ? 0 : angle;
+    }
+
+    private static TouchTrace load(String name) throws Exception {
+        InputStream in = TouchTraceReplayTest.class.getResourceAsStream("/traces/" + name + ".trace");
+        try {
+            return TouchTrace.read(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.os.SystemClock;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * Feeds a {@link TouchTrace} back into a {@link ProtractorView} on the JVM, timing every event.
+ * The view is laid out at the size and with the tick dimensions of the trace, converted with its own density,
+ * and its listener is replaced by one recording the progress changes.
+ * Events are replayed with their batched samples, which the tests support through {@link ShadowBatchedMotionEvent}.
+ * Where MotionEvent cannot carry batched samples, or when asked to, the historical samples of an event are sent
+ * as move events of their own, so the view still goes through every sample.
+ */
+final class TouchTraceReplayer {
+
+    private TouchTraceReplayer() {
+    }
+
+    static Result replay(TouchTrace trace, ProtractorView view) {
+        return replay(trace, view, true);
+    }
+
+    /**
+     * @param batch false to send every sample as an event of its own
+     */
+    static Result replay(TouchTrace trace, ProtractorView view, boolean batch) {
+        float density = view.getResources().getDisplayMetrics().density;
+        view.setTickOffset(pixelSize(trace.tickOffset, density));
+        view.setTickLength(pixelSize(trace.tickLength, density));
+        view.setTouchInside(trace.touchInside);
+        ViewFixtures.layOut(view, pixelSize(trace.width, density), pixelSize(trace.height, density));
+
+        final Result result = new Result(trace.eventCount, trace.getSampleCount());
+        view.setOnProtractorViewChangeListener(new ProtractorView.OnProtractorViewChangeListener() {
+            @Override
+            public void onProgressChanged(ProtractorView protractorView, int progress, boolean fromUser) {
+                result.angles[result.progressChanges++] = progress;
+            }
+
+            @Override
+            public void onStartTrackingTouch(ProtractorView protractorView) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(ProtractorView protractorView) {
+            }
+        });
+
+        long downTime = SystemClock.uptimeMillis();
+        for (int event = 0; event < trace.eventCount; event++) {
+            int first = trace.sampleStart(event);
+            int last = trace.sampleEnd[event] - 1;
+            MotionEvent motionEvent = obtain(trace, trace.actions[event], first, downTime, density);
+            for (int i = first + 1; batch && i <= last; i++) {
+                motionEvent.addBatch(downTime + trace.times[i], toPixels(trace.x[i], density),
+                        toPixels(trace.y[i], density), 1, 1, 0);
+            }
+            if (first == last || motionEvent.getHistorySize() == last - first) {
+                result.batched |= last > first;
+                result.eventNanos[event] = dispatch(view, motionEvent);
+                continue;
+            }
+            //No batching, one event per sample
+            motionEvent.recycle();
+            long nanos = 0;
+            for (int i = first; i < last; i++) {
+                nanos += dispatch(view, obtain(trace, MotionEvent.ACTION_MOVE, i, downTime, density));
+            }
+            result.eventNanos[event] = nanos + dispatch(view, obtain(trace, trace.actions[event], last, downTime, density));
+        }
+        result.finalAngle = view.getAngle();
+        return result;
+    }
+
+    //Times the handling of the event, then recycles it
+    private static long dispatch(ProtractorView view, MotionEvent motionEvent) {
+        long start = System.nanoTime();
+        view.onTouchEvent(motionEvent);
+        long nanos = System.nanoTime() - start;
+        motionEvent.recycle();
+        return nanos;
+    }
+
+    private static MotionEvent obtain(TouchTrace trace, int action, int sample, long downTime, float density) {
+        return MotionEvent.obtain(downTime, downTime + trace.times[sample], action,
+                toPixels(trace.x[sample], density), toPixels(trace.y[sample], density), 0);
+    }
+
+    static int pixelSize(int units, float density) {
+        return Math.round(TouchTrace.toDp(units) * density);
+    }
+
+    static float toPixels(int units, float density) {
+        return TouchTrace.toDp(units) * density;
+    }
+
+    static final class Result {
+        final long[] eventNanos;
+        //Progress passed to the listener, the first progressChanges ones are set
+        final int[] angles;
+        int progressChanges;
+        int finalAngle;
+        //True if events carrying several samples were sent as such
+        boolean batched;
+
+        Result(int events, int samples) {
+            eventNanos = new long[events];
+            angles = new int[samples];
+        }
+
+        int[] progressAngles() {
+            return Arrays.copyOf(angles, progressChanges);
+        }
+
+        long maxNanos() {
+            long max = 0;
+            for (long nanos : eventNanos) {
+                max = Math.max(max, nanos);
+            }
+            return max;
+        }
+
+        long meanNanos() {
+            long total = 0;
+            for (long nanos : eventNanos) {
+                total += nanos;
+            }
+            return (eventNanos.length == 0) ? 0 : total / eventNanos.length;
+        }
+
+        @Override
+        public String toString() {
+            return eventNanos.length + " events, " + progressChanges + " onProgressChanged, final angle " + finalAngle
+                    + ", mean " + meanNanos() / 1000 + "us, max " + maxNanos() / 1000 + "us per event";
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Binary format of {@link TouchTrace} and the checked in fixtures.
+ */
+public class TouchTraceTest {
+
+    @Test
+    public void traceReadsBackAsWritten() throws Exception {
+        TouchTrace trace = new TouchTrace.Builder(360.3f, 200, 12, 10, true)
+                .beginEvent(0)
+                .addSample(5000, 10.5f, 20.25f)
+                .beginEvent(2)
+                .addSample(5004, 11, 19.1f)
+                .addSample(5008, 300, 0)
+                .addSample(5012, -5, 400.7f)
+                .beginEvent(1)
+                .addSample(5020, -5, 400.7f)
+                .build();
+        TouchTrace read = TouchTrace.read(new ByteArrayInputStream(toBytes(trace)));
+
+        assertEquals(trace.width, read.width);
+        assertEquals(trace.height, read.height);
+        assertEquals(trace.tickOffset, read.tickOffset);
+        assertEquals(trace.tickLength, read.tickLength);
+        assertTrue(read.touchInside);
+        assertArrayEquals(trace.actions, read.actions);
+        assertArrayEquals(trace.sampleEnd, read.sampleEnd);
+        assertArrayEquals(trace.times, read.times);
+        assertArrayEquals(trace.x, read.x);
+        assertArrayEquals(trace.y, read.y);
+        assertEquals(20, read.getDurationMillis());
+        //Stored to a sixteenth of a dp
+        assertEquals(20.25f, TouchTrace.toDp(read.y[0]), 0);
+        assertEquals(19.1f, TouchTrace.toDp(read.y[1]), 1f / TouchTrace.UNITS_PER_DP);
+    }
+
+    @Test
+    public void smoothGesturesTakeAFewBytesPerSample() throws Exception {
+        for (String name : TouchTraceFixtures.NAMES) {
+            TouchTrace trace = TouchTraceFixtures.create(name);
+            int bytes = toBytes(trace).length;
+            assertTrue(name + ": " + bytes + " bytes", bytes < 16 + 3 * trace.eventCount + 6 * trace.sampleCount);
+        }
+    }
+
+    @Test
+    public void otherStreamsAreRejected() throws Exception {
+        try {
+            TouchTrace.read(new ByteArrayInputStream("not a trace".getBytes("UTF-8")));
+            fail();
+        } catch (IOException expected) {
+        }
+        byte[] bytes = toBytes(TouchTraceFixtures.create("fast_flick"));
+        bytes[4] = TouchTrace.VERSION + 1;
+        try {
+            TouchTrace.read(new ByteArrayInputStream(bytes));
+            fail();
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void checkedInFixturesMatchTheGenerator() throws Exception {
+        for (String name : TouchTraceFixtures.NAMES) {
+            InputStream in = getClass().getResourceAsStream("/traces/" + name + ".trace");
+            assertNotNull(name, in);
+            try {
+                byte[] expected = toBytes(TouchTraceFixtures.create(name));
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    actual.write(buffer, 0, read);
+                }
+                assertArrayEquals(name + " is stale, run TouchTraceFixtures", expected, actual.toByteArray());
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    private static byte[] toBytes(TouchTrace trace) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.write(out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+MIT License
+Copyright (c) 2017 GoodieBag
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+ */
+
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+import android.widget.FrameLayout;
+
+/**
+ * Views laid out the way the Robolectric tests need them, and a {@link ProtractorView} counting its redraws.
+ */
+final class ViewFixtures {
+
+    private ViewFixtures() {
+    }
+
+    /**
+     * Puts the view in a parent when it has none, so touch handling can reach it, then measures and lays it out.
+     */
+    static <T extends View> T layOut(T view, int width, int height) {
+        if (view.getParent() == null) {
+            new FrameLayout(view.getContext()).addView(view);
+        }
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        return view;
+    }
+
+    /**
+     * A square {@link CountingProtractorView}, laid out and with every count at zero.
+     */
+    static CountingProtractorView countingProtractorView(Context context, int size) {
+        CountingProtractorView view = layOut(new CountingProtractorView(context), size, size);
+        view.resetCounts();
+        return view;
+    }
+
+    static class CountingProtractorView extends ProtractorView {
+        int invalidates;
+        int layoutRequests;
+        int progressChanges;
+        int draws;
+        /**
+         * Keeps invalidations away from the framework. Robolectric's shadow of {@link View#invalidate()}
+         * allocates on every call, which a device does not.
+         */
+        boolean swallowInvalidates;
+
+        CountingProtractorView(Context context) {
+            super(context);
+            setOnProtractorViewChangeListener(new OnProtractorViewChangeListener() {
+                @Override
+                public void onProgressChanged(ProtractorView protractorView, int progress, boolean fromUser) {
+                    progressChanges++;
+                }
+
+                @Override
+                public void onStartTrackingTouch(ProtractorView protractorView) {
+                }
+
+                @Override
+                public void onStopTrackingTouch(ProtractorView protractorView) {
+                }
+            });
+        }
+
+        void resetCounts() {
+            invalidates = 0;
+            layoutRequests = 0;
+            progressChanges = 0;
+            draws = 0;
+        }
+
+        @Override
+        public void invalidate() {
+            invalidates++;
+            if (!swallowInvalidates) {
+                super.invalidate();
+            }
+        }
+
+        @Override
+        public void invalidate(Rect dirty) {
+            invalidates++;
+            if (!swallowInvalidates) {
+                super.invalidate(dirty);
+            }
+        }
+
+        @Override
+        protected void onDraw(Canvas canvas) {
+            draws++;
+            super.onDraw(canvas);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+}
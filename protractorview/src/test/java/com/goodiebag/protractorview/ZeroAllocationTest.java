@@ -0,0 +1,151 @@
+package com.goodiebag.protractorview;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.ShapeDrawable;
+import android.graphics.drawable.shapes.OvalShape;
+import android.view.MotionEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import com.goodiebag.protractorview.ViewFixtures.CountingProtractorView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails when the steady state draw, touch or setAngle paths of ProtractorView allocate.
+ * Each path is warmed up first so one-off work (geometry rebuilds, class loading, pressed state) is not counted.
+ * Robolectric's shadows of {@link android.view.View#invalidate()} and {@link Drawable#invalidateSelf()} allocate
+ * on every call, so invalidations stop at the view and the thumb has no states of its own.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ZeroAllocationTest {
+
+    private static final int SIZE = 1080;
+    private static final int WARMUPS = 200;
+    private static final int ITERATIONS = 1000;
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "tickIntervals={0}, ticksBetweenLabel={1}")
+    public static Collection<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (int tickIntervals : new int[]{1, 5, 15, 45}) {
+            for (ProtractorView.TicksBetweenLabel ticksBetweenLabel : ProtractorView.TicksBetweenLabel.values()) {
+                parameters.add(new Object[]{tickIntervals, ticksBetweenLabel});
+            }
+        }
+        return parameters;
+    }
+
+    private final int mTickIntervals;
+    private final ProtractorView.TicksBetweenLabel mTicksBetweenLabel;
+
+    private AllocationMeter mMeter;
+    private CountingProtractorView mView;
+    private final NoOpCanvas mCanvas = new NoOpCanvas();
+    //One event per angle, built up front
+    private final MotionEvent[] mMoves = new MotionEvent[181];
+    private MotionEvent mDown;
+    private MotionEvent mUp;
+
+    public ZeroAllocationTest(int tickIntervals, ProtractorView.TicksBetweenLabel ticksBetweenLabel) {
+        mTickIntervals = tickIntervals;
+        mTicksBetweenLabel = ticksBetweenLabel;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        mMeter = new AllocationMeter();
+        assumeTrue("per thread allocation counter not available", mMeter.isSupported());
+
+        Context context = RuntimeEnvironment.application;
+        //Counts progress changes, so the listener path is measured too
+        mView = new CountingProtractorView(context);
+        mView.setTickIntervals(mTickIntervals);
+        mView.setTicksBetweenLabel(mTicksBetweenLabel);
+        mView.swallowInvalidates = true;
+        ShapeDrawable thumb = new ShapeDrawable(new OvalShape());
+        thumb.setIntrinsicWidth(40);
+        thumb.setIntrinsicHeight(40);
+        mView.setThumb(thumb);
+        ViewFixtures.layOut(mView, SIZE, SIZE);
+
+        //Same layout math as ArcLayout, touches land on the arc itself
+        float density = context.getResources().getDisplayMetrics().density;
+        float centerX = SIZE / 2;
+        float centerY = SIZE / 2;
+        float radius = SIZE / 2 - mView.getTickOffset() - mView.getTickLength() - ArcLayout.LABEL_MARGIN_DP * density;
+        for (int angle = 0; angle <= 180; angle++) {
+            float x = (float) (centerX + radius * Math.cos(Math.toRadians(angle)));
+            float y = (float) (centerY - radius * Math.sin(Math.toRadians(angle)));
+            mMoves[angle] = MotionEvent.obtain(0, angle, MotionEvent.ACTION_MOVE, x, y, 0);
+        }
+        mDown = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, mMoves[90].getX(), mMoves[90].getY(), 0);
+        mUp = MotionEvent.obtain(0, 200, MotionEvent.ACTION_UP, mMoves[90].getX(), mMoves[90].getY(), 0);
+    }
+
+    @Test
+    public void onDrawDoesNotAllocate() throws Exception {
+        long bytes = mMeter.measure(new AllocationMeter.Block() {
+            @Override
+            public void run(int iteration) {
+                mView.setAngle(iteration % 181);
+                mView.onDraw(mCanvas);
+            }
+        }, WARMUPS, ITERATIONS);
+        assertEquals("bytes allocated by " + ITERATIONS + " frames", 0, bytes);
+    }
+
+    @Test
+    public void onDrawWithStaticLayerDoesNotAllocate() throws Exception {
+        mView.setStaticLayerCacheEnabled(true);
+        long bytes = mMeter.measure(new AllocationMeter.Block() {
+            @Override
+            public void run(int iteration) {
+                mView.setAngle(iteration % 181);
+                mView.onDraw(mCanvas);
+            }
+        }, WARMUPS, ITERATIONS);
+        assertEquals("bytes allocated by " + ITERATIONS + " frames", 0, bytes);
+    }
+
+    @Test
+    public void onTouchEventDoesNotAllocate() throws Exception {
+        long bytes = mMeter.measure(new AllocationMeter.Block() {
+            @Override
+            public void run(int iteration) {
+                //A DOWN, a sweep of MOVEs and an UP every 181 iterations
+                int angle = iteration % 181;
+                if (angle == 0) {
+                    mView.onTouchEvent(mDown);
+                }
+                mView.onTouchEvent(mMoves[angle]);
+                if (angle == 180) {
+                    mView.onTouchEvent(mUp);
+                }
+            }
+        }, WARMUPS, ITERATIONS);
+        assertEquals("bytes allocated by " + ITERATIONS + " touch events", 0, bytes);
+    }
+
+    @Test
+    public void setAngleDoesNotAllocate() throws Exception {
+        long bytes = mMeter.measure(new AllocationMeter.Block() {
+            @Override
+            public void run(int iteration) {
+                mView.setAngle(iteration % 181);
+            }
+        }, WARMUPS, ITERATIONS);
+        assertEquals("bytes allocated by " + ITERATIONS + " setAngle calls", 0, bytes);
+    }
+}